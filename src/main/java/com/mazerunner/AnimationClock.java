@@ -0,0 +1,144 @@
+package com.mazerunner;
+
+import javafx.animation.AnimationTimer;
+import javafx.beans.InvalidationListener;
+import javafx.beans.value.ChangeListener;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * One AnimationTimer driving every continuous animation, instead of a Timeline each.
+ * All animations see the same timestamp in a frame, so they stay in step, and the
+ * timer only runs while at least one animation is registered.
+ * Use from the JavaFX application thread.
+ */
+final class AnimationClock {
+
+    /**
+     * Something updated once per frame
+     */
+    interface Animation {
+        /**
+         * Compute the state for this frame
+         * @param time seconds since the clock was created
+         * @param delta seconds since the previous frame, 0 on the first frame after a pause
+         */
+        void update(double time, double delta);
+    }
+
+    private final List<Animation> animations = new CopyOnWriteArrayList<>(); // May change from inside update
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            tick(now);
+        }
+    };
+    private long origin = -1; // Timestamp of the first frame, or -1 before it
+    private long lastFrame = -1; // Timestamp of the previous frame, or -1 while stopped
+
+    void add(Animation animation) {
+        if (animations.contains(animation)) {
+            return;
+        }
+        animations.add(animation);
+        if (animations.size() == 1) {
+            lastFrame = -1; // Don't count the time spent stopped as one long frame
+            timer.start();
+        }
+    }
+
+    void remove(Animation animation) {
+        if (animations.remove(animation) && animations.isEmpty()) {
+            timer.stop();
+        }
+    }
+
+    /**
+     * Run an animation only while a node is in a scene whose window is showing and not
+     * minimized. It stops by itself when the node is removed, its scene is swapped out
+     * or the window is hidden or iconified, so nothing animates what can't be seen.
+     */
+    void addWhileShowing(Node node, Animation animation) {
+        InvalidationListener visibility = obs -> setActive(animation, isShowing(node.getScene()));
+        ChangeListener<Window> windowListener = (obs, oldWindow, window) -> {
+            watchWindow(oldWindow, visibility, false);
+            watchWindow(window, visibility, true);
+            visibility.invalidated(obs);
+        };
+        node.sceneProperty().addListener((obs, oldScene, scene) -> {
+            if (oldScene != null) {
+                oldScene.windowProperty().removeListener(windowListener);
+                watchWindow(oldScene.getWindow(), visibility, false);
+            }
+            if (scene != null) {
+                scene.windowProperty().addListener(windowListener);
+                watchWindow(scene.getWindow(), visibility, true);
+            }
+            visibility.invalidated(obs);
+        });
+        Scene scene = node.getScene();
+        if (scene != null) {
+            scene.windowProperty().addListener(windowListener);
+            watchWindow(scene.getWindow(), visibility, true);
+        }
+        setActive(animation, isShowing(scene));
+    }
+
+    /**
+     * Start or stop listening to whether a window is shown and, for a stage, minimized
+     */
+    private static void watchWindow(Window window, InvalidationListener listener, boolean watch) {
+        if (window == null) {
+            return;
+        }
+        if (watch) {
+            window.showingProperty().addListener(listener);
+        } else {
+            window.showingProperty().removeListener(listener);
+        }
+        if (window instanceof Stage) {
+            if (watch) {
+                ((Stage) window).iconifiedProperty().addListener(listener);
+            } else {
+                ((Stage) window).iconifiedProperty().removeListener(listener);
+            }
+        }
+    }
+
+    private static boolean isShowing(Scene scene) {
+        if (scene == null || scene.getWindow() == null || !scene.getWindow().isShowing()) {
+            return false;
+        }
+        return !(scene.getWindow() instanceof Stage) || !((Stage) scene.getWindow()).isIconified();
+    }
+
+    private void setActive(Animation animation, boolean active) {
+        if (active) {
+            add(animation);
+        } else {
+            remove(animation);
+        }
+    }
+
+    void stop() {
+        animations.clear();
+        timer.stop();
+    }
+
+    private void tick(long now) {
+        if (origin < 0) {
+            origin = now;
+        }
+        double time = (now - origin) / 1e9;
+        double delta = lastFrame < 0 ? 0 : (now - lastFrame) / 1e9;
+        lastFrame = now;
+        for (Animation animation : animations) {
+            animation.update(time, delta);
+        }
+    }
+}
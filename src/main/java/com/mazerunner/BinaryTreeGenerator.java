@@ -0,0 +1,33 @@
+package com.mazerunner;
+
+import java.util.Random;
+
+/**
+ * Binary tree algorithm: every room opens to the north or the west. Runs in a single
+ * row-major pass with no state beyond the grid, but leaves open corridors along the
+ * top row and left column and a strong diagonal bias.
+ */
+final class BinaryTreeGenerator implements MazeGenerator {
+
+    @Override
+    public void carve(BitGrid grid, CellList pathCells, Random random) {
+        int roomRows = MazeGenerator.roomRows(grid);
+        int roomCols = MazeGenerator.roomCols(grid);
+
+        for (int i = 0; i < roomRows; i++) {
+            for (int j = 0; j < roomCols; j++) {
+                int r = 2 * i + 1;
+                int c = 2 * j + 1;
+                MazeGenerator.carveCell(grid, pathCells, r, c);
+
+                boolean canGoNorth = i > 0;
+                boolean canGoWest = j > 0;
+                if (canGoNorth && (!canGoWest || random.nextBoolean())) {
+                    MazeGenerator.carveCell(grid, pathCells, r - 1, c);
+                } else if (canGoWest) {
+                    MazeGenerator.carveCell(grid, pathCells, r, c - 1);
+                }
+            }
+        }
+    }
+}
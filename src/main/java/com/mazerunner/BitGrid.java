@@ -0,0 +1,230 @@
+package com.mazerunner;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Compact wall storage for a maze: one bit per cell in a long[] bitset,
+ * indexed row-major (index = row * cols + col). A set bit is a wall.
+ * The words can also live in a little-endian ByteBuffer, either direct memory
+ * off the Java heap or a memory-mapped maze file; a read-only buffer is copied
+ * to the heap on the first write.
+ */
+final class BitGrid {
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle BUFFER_WORDS =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final int rows;
+    private final int cols;
+    private long[] bits;      // Heap words, or null while backed by a buffer
+    private ByteBuffer bytes; // Buffer words, or null when on the heap
+
+    BitGrid(int rows, int cols) {
+        this(rows, cols, new long[wordCount(rows, cols)]);
+    }
+
+    /**
+     * Wrap heap words without copying them
+     * @param bits one long per 64 cells
+     */
+    BitGrid(int rows, int cols, long[] bits) {
+        int count = wordCount(rows, cols);
+        if (bits.length != count) {
+            throw new IllegalArgumentException("Expected " + count + " words, got " + bits.length);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.bits = bits;
+    }
+
+    /**
+     * Wrap words held in a buffer without copying them
+     * @param bytes one little-endian long per 64 cells, from the buffer's position on
+     */
+    BitGrid(int rows, int cols, ByteBuffer bytes) {
+        int count = wordCount(rows, cols);
+        if (bytes.remaining() < count * Long.BYTES) {
+            throw new IllegalArgumentException("Expected " + count + " words, got " + bytes.remaining() / Long.BYTES);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        // slice() resets the byte order, so set it afterwards
+        this.bytes = bytes.slice().limit(count * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Create a grid in direct memory, outside the Java heap. Every cell starts open.
+     */
+    static BitGrid allocateDirect(int rows, int cols) {
+        return new BitGrid(rows, cols, ByteBuffer.allocateDirect(wordCount(rows, cols) * Long.BYTES));
+    }
+
+    /**
+     * Get the number of 64-bit words needed for a grid
+     */
+    static int wordCount(int rows, int cols) {
+        if (rows <= 0 || cols <= 0) {
+            throw new IllegalArgumentException("Grid dimensions must be positive: " + rows + "x" + cols);
+        }
+        long cells = (long) rows * cols;
+        if (cells > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Grid too large: " + rows + "x" + cols);
+        }
+        return (int) ((cells + 63) >>> 6);
+    }
+
+    int getRows() {
+        return rows;
+    }
+
+    int getCols() {
+        return cols;
+    }
+
+    int index(int row, int col) {
+        return row * cols + col;
+    }
+
+    boolean isWall(int index) {
+        return (word(index >>> 6) & (1L << index)) != 0;
+    }
+
+    void setWall(int index) {
+        if (bits != null) {
+            bits[index >>> 6] |= 1L << index;
+        } else {
+            putWord(index >>> 6, word(index >>> 6) | (1L << index));
+        }
+    }
+
+    void clearWall(int index) {
+        if (bits != null) {
+            bits[index >>> 6] &= ~(1L << index);
+        } else {
+            putWord(index >>> 6, word(index >>> 6) & ~(1L << index));
+        }
+    }
+
+    /**
+     * Clear a wall bit atomically, for threads carving disjoint cells that may share a word
+     */
+    void clearWallConcurrently(int index) {
+        if (bits != null) {
+            WORDS.getAndBitwiseAnd(bits, index >>> 6, ~(1L << index));
+        } else {
+            // Atomic on direct buffers, whose words are 8-byte aligned
+            BUFFER_WORDS.getAndBitwiseAnd(bytes, (index >>> 6) << 3, ~(1L << index));
+        }
+    }
+
+    /**
+     * Check whether the walls are held outside the Java heap
+     */
+    boolean isDirect() {
+        return bits == null && bytes.isDirect();
+    }
+
+    /**
+     * Get the number of 64-bit words holding the cells
+     */
+    int wordCount() {
+        return bits != null ? bits.length : bytes.limit() >>> 3;
+    }
+
+    /**
+     * Get 64 cells at once; bit i of word w is cell w * 64 + i
+     */
+    long word(int word) {
+        return bits != null ? bits[word] : bytes.getLong(word << 3);
+    }
+
+    /**
+     * Get 64 consecutive cells starting at any index, bit i being cell index + i.
+     * Bits past the last word read as walls.
+     */
+    long wordAt(int index) {
+        int word = index >>> 6;
+        int shift = index & 63;
+        long low = word(word) >>> shift;
+        if (shift == 0) {
+            return low;
+        }
+        long high = word + 1 < wordCount() ? word(word + 1) : -1L;
+        return low | (high << (64 - shift));
+    }
+
+    private void putWord(int word, long value) {
+        if (bits == null && bytes.isReadOnly()) {
+            // Copy on write, so a mapped file is never modified
+            bits = new long[wordCount()];
+            bytes.asLongBuffer().get(bits); // Position stays 0, reads go through absolute gets
+            bytes = null;
+        }
+        if (bits != null) {
+            bits[word] = value;
+        } else {
+            bytes.putLong(word << 3, value);
+        }
+    }
+
+    /**
+     * Find the first non-wall cell at or after an index, skipping 64 walls at a time
+     * @return the index of the cell, or -1 if every remaining cell is a wall
+     */
+    int nextOpenCell(int fromIndex) {
+        int limit = rows * cols;
+        if (fromIndex >= limit) {
+            return -1;
+        }
+        int word = fromIndex >>> 6;
+        int wordCount = wordCount();
+        long open = ~word(word) & (-1L << fromIndex);
+        while (open == 0) {
+            if (++word == wordCount) {
+                return -1;
+            }
+            open = ~word(word);
+        }
+        int index = (word << 6) + Long.numberOfTrailingZeros(open);
+        return index < limit ? index : -1;
+    }
+
+    /**
+     * Turn every cell in a row into a wall
+     */
+    void fillRowWalls(int row) {
+        int from = row * cols;
+        int to = from + cols;
+        while (from < to && (from & 63) != 0) {
+            setWall(from++);
+        }
+        while (to - from >= 64) {
+            putWord(from >>> 6, -1L);
+            from += 64;
+        }
+        while (from < to) {
+            setWall(from++);
+        }
+    }
+
+    /**
+     * Turn every cell into a wall
+     */
+    void fillWalls() {
+        if (bits == null && bytes.isReadOnly()) {
+            bits = new long[wordCount()]; // Detach from the buffer rather than copy it
+            bytes = null;
+        }
+        if (bits != null) {
+            Arrays.fill(bits, -1L);
+        } else {
+            for (int w = wordCount() - 1; w >= 0; w--) {
+                bytes.putLong(w << 3, -1L);
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.mazerunner;
+
+/**
+ * A view onto the maze that eases towards a target point and zoom level.
+ * World coordinates are maze pixels at zoom 1; the viewport is in screen pixels.
+ * The view is kept inside the maze, or centred on it when the maze is smaller.
+ */
+final class Camera {
+    static final double MIN_ZOOM = 0.5;
+    static final double MAX_ZOOM = 2.0;
+    private static final double FOLLOW_RATE = 8.0; // Per second; higher catches up faster
+    private static final double SETTLE_DISTANCE = 0.05; // Pixels (or zoom units) treated as arrived
+
+    private double worldWidth;
+    private double worldHeight;
+    private double viewportWidth;
+    private double viewportHeight;
+    private double centerX;
+    private double centerY;
+    private double zoom = 1.0;
+    private double targetX;
+    private double targetY;
+    private double targetZoom = 1.0;
+
+    void setWorldSize(double width, double height) {
+        worldWidth = width;
+        worldHeight = height;
+    }
+
+    void setViewportSize(double width, double height) {
+        viewportWidth = width;
+        viewportHeight = height;
+    }
+
+    double getViewportWidth() {
+        return viewportWidth;
+    }
+
+    double getViewportHeight() {
+        return viewportHeight;
+    }
+
+    /**
+     * Set the world point the camera should centre on
+     */
+    void follow(double x, double y) {
+        targetX = x;
+        targetY = y;
+    }
+
+    /**
+     * Set the zoom the camera should ease to, clamped to the supported range
+     */
+    void zoomTo(double zoom) {
+        targetZoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom));
+    }
+
+    double getTargetZoom() {
+        return targetZoom;
+    }
+
+    /**
+     * Jump straight to the target, skipping the easing
+     */
+    void snap() {
+        centerX = targetX;
+        centerY = targetY;
+        zoom = targetZoom;
+    }
+
+    /**
+     * Ease towards the target
+     * @param seconds time since the previous update
+     * @return true if the view moved
+     */
+    boolean update(double seconds) {
+        double oldX = getViewX();
+        double oldY = getViewY();
+        double oldZoom = zoom;
+
+        // Exponential easing gives the same motion whatever the frame rate
+        double step = 1 - Math.exp(-FOLLOW_RATE * seconds);
+        centerX = approach(centerX, targetX, step);
+        centerY = approach(centerY, targetY, step);
+        zoom = approach(zoom, targetZoom, step);
+        return getViewX() != oldX || getViewY() != oldY || zoom != oldZoom;
+    }
+
+    private static double approach(double value, double target, double step) {
+        double next = value + (target - value) * step;
+        return Math.abs(target - next) < SETTLE_DISTANCE ? target : next;
+    }
+
+    double getZoom() {
+        return zoom;
+    }
+
+    /**
+     * Get the world x shown at the left edge of the viewport
+     */
+    double getViewX() {
+        return clampView(centerX, viewportWidth / zoom, worldWidth);
+    }
+
+    /**
+     * Get the world y shown at the top edge of the viewport
+     */
+    double getViewY() {
+        return clampView(centerY, viewportHeight / zoom, worldHeight);
+    }
+
+    private static double clampView(double center, double span, double world) {
+        if (span >= world) {
+            return (world - span) / 2; // Centre a maze smaller than the view
+        }
+        return Math.max(0, Math.min(world - span, center - span / 2));
+    }
+}
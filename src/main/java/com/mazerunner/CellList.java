@@ -0,0 +1,38 @@
+package com.mazerunner;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of packed cell indices (row * cols + col), avoiding an int[] per cell
+ */
+final class CellList {
+    private int[] cells = new int[64];
+    private int size = 0;
+
+    void add(int cell) {
+        if (size == cells.length) {
+            cells = Arrays.copyOf(cells, size * 2);
+        }
+        cells[size++] = cell;
+    }
+
+    int get(int index) {
+        return cells[index];
+    }
+
+    void set(int index, int cell) {
+        cells[index] = cell;
+    }
+
+    void removeLast() {
+        size--;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        size = 0;
+    }
+}
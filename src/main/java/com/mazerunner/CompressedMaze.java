@@ -0,0 +1,424 @@
+package com.mazerunner;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A read-only maze stored as 64x64 tiles, each compressed on its own. Tiles that
+ * are all wall or all open take no storage; the rest are deflated, and a small LRU
+ * cache keeps recently read tiles unpacked. The full bitmap never exists at once,
+ * so boards can be far larger than a Maze, e.g. 100k x 100k.
+ */
+public class CompressedMaze {
+    private static final int TILE_SHIFT = 6;
+    private static final int TILE = 1 << TILE_SHIFT; // One tile row per long
+    private static final int DEFAULT_CACHE_TILES = 256; // 128 KB unpacked
+
+    // Shared unpacked forms of the uniform tiles
+    private static final long[] WALL_TILE = filledTile(-1L);
+    private static final long[] OPEN_TILE = filledTile(0L);
+    private static final byte[] WALL_MARK = new byte[0];
+    private static final byte[] OPEN_MARK = new byte[0];
+
+    private final int rows;
+    private final int cols;
+    private final int tileCols;
+    private final byte[][] tiles; // Row-major; deflated, or one of the marks
+    private final long seed;
+    private final int startRow;
+    private final int startCol;
+    private final int endRow;
+    private final int endCol;
+    private long compressedBytes = 0;
+
+    // LRU cache of unpacked tiles, found through an open-addressing table so a lookup boxes nothing
+    private final int[] slotTile; // Tile index held in each slot, -1 while empty
+    private final long[][] slotData; // Unpacked tile per slot, reused when the slot is evicted
+    private final long[] slotUsed; // Access stamp per slot; the lowest is evicted, 0 while empty
+    private final int[] table; // Slot + 1 per bucket, 0 if free; kept at most half full
+    private final int tableShift; // 32 - log2(table.length), for the multiplicative hash
+    private long accesses = 0;
+    private final Inflater inflater = new Inflater();
+    private final byte[] unpackBuffer = new byte[TILE * Long.BYTES];
+    private int lastTileIndex = -1; // Most recently read tile, checked before the cache
+    private long[] lastTile;
+
+    private CompressedMaze(int rows, int cols, long seed, int startRow, int startCol,
+                           int endRow, int endCol, int cacheTiles) {
+        if (rows < 5 || cols < 5) {
+            throw new IllegalArgumentException("Maze must be at least 5x5, got " + rows + "x" + cols);
+        }
+        int tileRows = (rows + TILE - 1) >>> TILE_SHIFT;
+        this.tileCols = (cols + TILE - 1) >>> TILE_SHIFT;
+        if ((long) tileRows * tileCols > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Maze too large: " + rows + "x" + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.tiles = new byte[tileRows * tileCols][];
+        this.seed = seed;
+        this.startRow = startRow;
+        this.startCol = startCol;
+        this.endRow = endRow;
+        this.endCol = endCol;
+        this.slotTile = new int[cacheTiles];
+        Arrays.fill(slotTile, -1);
+        this.slotData = new long[cacheTiles][];
+        this.slotUsed = new long[cacheTiles];
+        this.table = new int[Integer.highestOneBit(cacheTiles) * 4];
+        this.tableShift = 32 - Integer.numberOfTrailingZeros(table.length);
+    }
+
+    /**
+     * Compress an existing maze
+     */
+    public static CompressedMaze of(Maze maze) {
+        CompressedMaze compressed = new CompressedMaze(maze.getRows(), maze.getCols(), maze.getSeed(),
+                maze.getStartRow(), maze.getStartCol(), maze.getEndRow(), maze.getEndCol(), DEFAULT_CACHE_TILES);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        for (int band = 0; band << TILE_SHIFT < maze.getRows(); band++) {
+            compressed.packBand(maze.grid(), band << TILE_SHIFT, band, deflater);
+        }
+        deflater.end();
+        return compressed;
+    }
+
+    /**
+     * Generate a perfect maze straight into compressed tiles with Eller's algorithm.
+     * Only two bands of 64 rows are ever unpacked, so any size that fits in memory
+     * compressed can be built. The goal is the bottom-right room.
+     * @param rows number of rows, including the outer wall (at least 5)
+     * @param cols number of columns, including the outer wall (at least 5)
+     * @param seed seed for the random source; the same arguments always give the same maze
+     */
+    public static CompressedMaze generate(int rows, int cols, long seed) {
+        int roomRows = (rows - 1) / 2;
+        int roomCols = (cols - 1) / 2;
+        CompressedMaze compressed = new CompressedMaze(rows, cols, seed, 1, 1,
+                2 * roomRows - 1, 2 * roomCols - 1, DEFAULT_CACHE_TILES);
+
+        // Ring of two bands: row r lives in ring row r % (2 * TILE), so each band is
+        // one contiguous half that is packed and refilled as soon as it is final
+        BitGrid ring = new BitGrid(2 * TILE, cols);
+        ring.fillWalls();
+        EllerGenerator.RowState rowState = new EllerGenerator.RowState(roomCols);
+        CellList carved = new CellList();
+        Random random = new Random(seed);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        int packed = 0; // Bands packed so far
+
+        for (int i = 0; i < roomRows; i++) {
+            int r = 2 * i + 1;
+            rowState.carveRow(ring, carved, random, r % (2 * TILE), (r + 1) % (2 * TILE), i == roomRows - 1);
+            carved.clear();
+
+            // Rows up to r + 1 can't change any more
+            while (((packed + 1) << TILE_SHIFT) <= r + 2) {
+                compressed.packRingBand(ring, packed++, deflater);
+            }
+        }
+        while (packed << TILE_SHIFT < rows) {
+            compressed.packRingBand(ring, packed++, deflater);
+        }
+        deflater.end();
+        return compressed;
+    }
+
+    private void packRingBand(BitGrid ring, int band, Deflater deflater) {
+        int firstRingRow = (band & 1) << TILE_SHIFT;
+        packBand(ring, firstRingRow, band, deflater);
+        for (int i = 0; i < TILE; i++) {
+            ring.fillRowWalls(firstRingRow + i);
+        }
+    }
+
+    /**
+     * Compress one band of 64 rows into tiles
+     * @param source grid holding the band's rows
+     * @param firstSourceRow the source row holding the band's first row
+     * @param band the band to pack; rows past the maze are walls
+     */
+    private void packBand(BitGrid source, int firstSourceRow, int band, Deflater deflater) {
+        int bandRows = Math.min(TILE, rows - (band << TILE_SHIFT));
+        long[] tile = new long[TILE];
+        byte[] raw = new byte[TILE * Long.BYTES];
+        byte[] out = new byte[raw.length + 64]; // Room for deflate's worst-case growth
+
+        for (int tc = 0; tc < tileCols; tc++) {
+            int col = tc << TILE_SHIFT;
+            // Columns past the maze read as walls
+            long outside = cols - col >= TILE ? 0 : -1L << (cols - col);
+            boolean allWall = true;
+            boolean allOpen = true;
+            for (int i = 0; i < TILE; i++) {
+                long word = i < bandRows ? source.wordAt(source.index(firstSourceRow + i, col)) | outside : -1L;
+                tile[i] = word;
+                allWall &= word == -1L;
+                allOpen &= word == 0;
+            }
+
+            int index = band * tileCols + tc;
+            if (allWall) {
+                tiles[index] = WALL_MARK;
+            } else if (allOpen) {
+                tiles[index] = OPEN_MARK;
+            } else {
+                encode(tile, raw);
+                deflater.reset();
+                deflater.setInput(raw);
+                deflater.finish();
+                int length = deflater.deflate(out);
+                if (!deflater.finished()) {
+                    throw new IllegalStateException("Tile did not fit its compression buffer");
+                }
+                byte[] packedTile = new byte[length];
+                System.arraycopy(out, 0, packedTile, 0, length);
+                tiles[index] = packedTile;
+                compressedBytes += length;
+            }
+        }
+    }
+
+    /**
+     * Lay a tile out by parity before deflating: even-column and odd-column halves of
+     * even rows, then of odd rows. Rooms (odd, odd) and posts (even, even) are nearly
+     * constant, so two of the four runs shrink to almost nothing and the passage bits
+     * are left packed together.
+     */
+    private static void encode(long[] tile, byte[] raw) {
+        IntBuffer out = ByteBuffer.wrap(raw).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        for (int run = 0; run < 4; run++) {
+            int shift = (run & 1) * 32;
+            for (int i = run >> 1; i < TILE; i += 2) {
+                out.put((int) (unshuffle(tile[i]) >>> shift));
+            }
+        }
+    }
+
+    private static void decode(byte[] raw, long[] tile) {
+        IntBuffer in = ByteBuffer.wrap(raw).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        Arrays.fill(tile, 0L);
+        for (int run = 0; run < 4; run++) {
+            int shift = (run & 1) * 32;
+            for (int i = run >> 1; i < TILE; i += 2) {
+                tile[i] |= (in.get() & 0xFFFFFFFFL) << shift;
+            }
+        }
+        for (int i = 0; i < TILE; i++) {
+            tile[i] = shuffle(tile[i]);
+        }
+    }
+
+    /**
+     * Move the even bits of a word to its low half and the odd bits to its high half
+     */
+    private static long unshuffle(long x) {
+        long t;
+        t = (x ^ (x >>> 1)) & 0x2222222222222222L;
+        x ^= t ^ (t << 1);
+        t = (x ^ (x >>> 2)) & 0x0C0C0C0C0C0C0C0CL;
+        x ^= t ^ (t << 2);
+        t = (x ^ (x >>> 4)) & 0x00F000F000F000F0L;
+        x ^= t ^ (t << 4);
+        t = (x ^ (x >>> 8)) & 0x0000FF000000FF00L;
+        x ^= t ^ (t << 8);
+        t = (x ^ (x >>> 16)) & 0x00000000FFFF0000L;
+        x ^= t ^ (t << 16);
+        return x;
+    }
+
+    /**
+     * Inverse of unshuffle
+     */
+    private static long shuffle(long x) {
+        long t;
+        t = (x ^ (x >>> 16)) & 0x00000000FFFF0000L;
+        x ^= t ^ (t << 16);
+        t = (x ^ (x >>> 8)) & 0x0000FF000000FF00L;
+        x ^= t ^ (t << 8);
+        t = (x ^ (x >>> 4)) & 0x00F000F000F000F0L;
+        x ^= t ^ (t << 4);
+        t = (x ^ (x >>> 2)) & 0x0C0C0C0C0C0C0C0CL;
+        x ^= t ^ (t << 2);
+        t = (x ^ (x >>> 1)) & 0x2222222222222222L;
+        x ^= t ^ (t << 1);
+        return x;
+    }
+
+    private static long[] filledTile(long word) {
+        long[] tile = new long[TILE];
+        Arrays.fill(tile, word);
+        return tile;
+    }
+
+    /**
+     * Get a tile unpacked, through the cache
+     */
+    private long[] tile(int index) {
+        if (index == lastTileIndex) {
+            return lastTile;
+        }
+        byte[] packed = tiles[index];
+        long[] tile;
+        if (packed == WALL_MARK) {
+            tile = WALL_TILE;
+        } else if (packed == OPEN_MARK) {
+            tile = OPEN_TILE;
+        } else {
+            int slot = findSlot(index);
+            if (slot < 0) {
+                slot = evictSlot();
+                slotTile[slot] = index;
+                insertSlot(slot);
+                if (slotData[slot] == null) {
+                    slotData[slot] = new long[TILE];
+                }
+                unpack(packed, slotData[slot]);
+            }
+            slotUsed[slot] = ++accesses;
+            tile = slotData[slot];
+        }
+        lastTileIndex = index;
+        lastTile = tile;
+        return tile;
+    }
+
+    /**
+     * Get the cache slot holding a tile, or -1 if it isn't cached
+     */
+    private int findSlot(int index) {
+        int mask = table.length - 1;
+        for (int b = bucket(index); table[b] != 0; b = (b + 1) & mask) {
+            if (slotTile[table[b] - 1] == index) {
+                return table[b] - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Free the least recently used slot, or an empty one, and return it
+     */
+    private int evictSlot() {
+        // A linear scan, but only on a miss, which inflates a whole tile anyway
+        int oldest = 0;
+        for (int slot = 1; slot < slotUsed.length; slot++) {
+            if (slotUsed[slot] < slotUsed[oldest]) {
+                oldest = slot;
+            }
+        }
+        if (slotTile[oldest] >= 0) {
+            removeSlot(oldest);
+        }
+        return oldest;
+    }
+
+    private void insertSlot(int slot) {
+        int mask = table.length - 1;
+        int b = bucket(slotTile[slot]);
+        while (table[b] != 0) {
+            b = (b + 1) & mask;
+        }
+        table[b] = slot + 1;
+    }
+
+    private void removeSlot(int slot) {
+        int mask = table.length - 1;
+        int gap = bucket(slotTile[slot]);
+        while (table[gap] != slot + 1) {
+            gap = (gap + 1) & mask;
+        }
+        // Pull later entries of the probe run back over the gap, so lookups don't stop early
+        for (int b = (gap + 1) & mask; table[b] != 0; b = (b + 1) & mask) {
+            int home = bucket(slotTile[table[b] - 1]);
+            if (((b - home) & mask) >= ((b - gap) & mask)) {
+                table[gap] = table[b];
+                gap = b;
+            }
+        }
+        table[gap] = 0;
+    }
+
+    private int bucket(int index) {
+        return (index * 0x9E3779B9) >>> tableShift;
+    }
+
+    private void unpack(byte[] packed, long[] tile) {
+        inflater.reset();
+        inflater.setInput(packed);
+        try {
+            if (inflater.inflate(unpackBuffer) != unpackBuffer.length) {
+                throw new IllegalStateException("Corrupt maze tile");
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt maze tile", e);
+        }
+        decode(unpackBuffer, tile);
+    }
+
+    private boolean isOnGrid(int row, int col) {
+        return (row | col) >= 0 && row < rows && col < cols;
+    }
+
+    public synchronized boolean isWall(int row, int col) {
+        if (!isOnGrid(row, col)) {
+            return true; // Treat out of bounds as wall
+        }
+        long[] tile = tile((row >>> TILE_SHIFT) * tileCols + (col >>> TILE_SHIFT));
+        return (tile[row & (TILE - 1)] & (1L << col)) != 0;
+    }
+
+    public boolean isValidMove(int row, int col) {
+        return !isWall(row, col);
+    }
+
+    public Maze.CellType getCellType(int row, int col) {
+        if (row == startRow && col == startCol) {
+            return Maze.CellType.START;
+        } else if (row == endRow && col == endCol) {
+            return Maze.CellType.END;
+        }
+        return isWall(row, col) ? Maze.CellType.WALL : Maze.CellType.PATH;
+    }
+
+    /**
+     * Get the total size of the deflated tiles, not counting uniform tiles or the cache
+     */
+    public long getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getStartRow() {
+        return startRow;
+    }
+
+    public int getStartCol() {
+        return startCol;
+    }
+
+    public int getEndRow() {
+        return endRow;
+    }
+
+    public int getEndCol() {
+        return endCol;
+    }
+}
@@ -0,0 +1,53 @@
+package com.mazerunner;
+
+/**
+ * Collects changes to a maze into one bounding rectangle until they are drained,
+ * so a consumer can redraw or recompute just that part, e.g. once per frame.
+ */
+public final class DirtyRegion implements Maze.ChangeListener {
+    private int top;
+    private int left;
+    private int bottom = -1; // Empty while bottom < top
+    private int right = -1;
+
+    @Override
+    public synchronized void regionChanged(int top, int left, int bottom, int right) {
+        if (isEmpty()) {
+            this.top = top;
+            this.left = left;
+            this.bottom = bottom;
+            this.right = right;
+        } else {
+            this.top = Math.min(this.top, top);
+            this.left = Math.min(this.left, left);
+            this.bottom = Math.max(this.bottom, bottom);
+            this.right = Math.max(this.right, right);
+        }
+    }
+
+    public synchronized boolean isEmpty() {
+        return bottom < top;
+    }
+
+    /**
+     * Hand the collected region to a consumer and start collecting afresh
+     * @return false if nothing changed since the last drain
+     */
+    public boolean drainTo(Maze.ChangeListener consumer) {
+        int t, l, b, r;
+        synchronized (this) {
+            if (isEmpty()) {
+                return false;
+            }
+            t = top;
+            l = left;
+            b = bottom;
+            r = right;
+            bottom = -1;
+            top = 0;
+        }
+        // Outside the lock, so the consumer may change the maze again
+        consumer.regionChanged(t, l, b, r);
+        return true;
+    }
+}
@@ -0,0 +1,84 @@
+package com.mazerunner;
+
+import java.util.Random;
+
+/**
+ * Eller's algorithm: builds the maze one row at a time, tracking which rooms of the
+ * current row are already connected. Needs only O(cols) state however tall the maze is.
+ */
+final class EllerGenerator implements MazeGenerator {
+
+    @Override
+    public void carve(BitGrid grid, CellList pathCells, Random random) {
+        int roomRows = MazeGenerator.roomRows(grid);
+        RowState row = new RowState(MazeGenerator.roomCols(grid));
+
+        for (int i = 0; i < roomRows; i++) {
+            row.carveRow(grid, pathCells, random, 2 * i + 1, 2 * i + 2, i == roomRows - 1);
+        }
+    }
+
+    /**
+     * Connectivity of the rooms in one row. Rooms in the same set form a circular
+     * doubly linked list in column order (left and right). Sets never interleave, so
+     * two neighbouring rooms share a set exactly when one follows the other in its list.
+     */
+    static final class RowState {
+        private static final double JOIN_CHANCE = 0.5;
+        private static final double SKIP_DOWN_CHANCE = 0.5;
+
+        private final int width;
+        private final int[] left;
+        private final int[] right;
+
+        RowState(int width) {
+            this.width = width;
+            left = new int[width];
+            right = new int[width];
+            for (int j = 0; j < width; j++) {
+                left[j] = j;
+                right[j] = j;
+            }
+        }
+
+        /**
+         * Carve one row of rooms and the walls below it
+         * @param r the grid row of the rooms
+         * @param below the grid row holding the walls under the rooms (normally r + 1)
+         * @param last true to join every set in this row and carve nothing below it
+         */
+        void carveRow(BitGrid grid, CellList pathCells, Random random, int r, int below, boolean last) {
+            for (int j = 0; j < width; j++) {
+                MazeGenerator.carveCell(grid, pathCells, r, 2 * j + 1);
+            }
+
+            // Randomly join neighbouring rooms from different sets
+            for (int j = 0; j < width - 1; j++) {
+                if (right[j] != j + 1 && (last || random.nextDouble() < JOIN_CHANCE)) {
+                    // Splice the list of j + 1 in right after j
+                    right[left[j + 1]] = right[j];
+                    left[right[j]] = left[j + 1];
+                    right[j] = j + 1;
+                    left[j + 1] = j;
+                    MazeGenerator.carveCell(grid, pathCells, r, 2 * j + 2);
+                }
+            }
+            if (last) {
+                return;
+            }
+
+            // Every set keeps at least one room that opens downward; rooms that don't
+            // start a new set of their own in the next row
+            for (int j = 0; j < width; j++) {
+                if (left[j] != j && random.nextDouble() < SKIP_DOWN_CHANCE) {
+                    right[left[j]] = right[j];
+                    left[right[j]] = left[j];
+                    left[j] = j;
+                    right[j] = j;
+                } else {
+                    MazeGenerator.carveCell(grid, pathCells, below, 2 * j + 1);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.mazerunner;
+
+import java.util.Random;
+
+/**
+ * A maze that is endless downward, generated lazily row by row with Eller's
+ * algorithm. Only a sliding window of rows around the player is kept, so memory
+ * stays O(cols) however far down the player goes. Rows above the window have
+ * been discarded and read as walls; rows below it haven't been generated yet.
+ */
+public class EndlessMaze implements MazeView {
+    private static final int DEFAULT_ROWS_AHEAD = 32;
+    private static final int DEFAULT_ROWS_BEHIND = 32;
+
+    private final int cols;
+    private final long seed;
+    private final Random random;
+    private final int rowsAhead;
+    // Ring buffer of rows: row r lives in window row r % windowRows
+    private final int windowRows;
+    private final BitGrid window;
+    private final EllerGenerator.RowState rowState;
+    private final CellList carved = new CellList();
+    private int generatedRows = 0; // Rows [0, generatedRows) have been generated
+    private final int startRow = 1;
+    private final int startCol = 1;
+
+    public EndlessMaze(int cols, long seed) {
+        this(cols, seed, DEFAULT_ROWS_AHEAD, DEFAULT_ROWS_BEHIND);
+    }
+
+    /**
+     * Create an endless maze
+     * @param cols number of columns, including the side walls (at least 5)
+     * @param seed seed for the random source; the same seed and width always give the same maze
+     * @param rowsAhead rows kept generated below the player
+     * @param rowsBehind rows kept above the player before they are discarded
+     */
+    public EndlessMaze(int cols, long seed, int rowsAhead, int rowsBehind) {
+        if (cols < 5) {
+            throw new IllegalArgumentException("Maze must be at least 5 columns wide, got " + cols);
+        }
+        if (rowsAhead < 1 || rowsBehind < 1) {
+            throw new IllegalArgumentException("Window must extend at least one row each way");
+        }
+        this.cols = cols;
+        this.seed = seed;
+        this.random = new Random(seed);
+        this.rowsAhead = rowsAhead;
+        // Rows are generated in pairs (rooms plus the walls below), so leave room for one extra
+        this.windowRows = rowsBehind + 1 + rowsAhead + 2;
+        this.window = new BitGrid(windowRows, cols);
+        this.rowState = new EllerGenerator.RowState((cols - 1) / 2);
+
+        // Top wall
+        window.fillRowWalls(0);
+        generatedRows = 1;
+        advanceTo(startRow);
+    }
+
+    /**
+     * Generate rows ahead of the given row and discard rows far enough behind it.
+     * Call this whenever the player moves.
+     * @param row the row the player is on
+     */
+    public void advanceTo(int row) {
+        while (generatedRows <= row + rowsAhead) {
+            int roomRow = generatedRows;
+            int below = roomRow + 1;
+            window.fillRowWalls(roomRow % windowRows);
+            window.fillRowWalls(below % windowRows);
+            rowState.carveRow(window, carved, random, roomRow % windowRows, below % windowRows, false);
+            carved.clear();
+            generatedRows += 2;
+        }
+    }
+
+    /**
+     * Get the first row still held in memory
+     */
+    public int getWindowStart() {
+        return Math.max(0, generatedRows - windowRows);
+    }
+
+    /**
+     * Get the row after the last generated one
+     */
+    public int getWindowEnd() {
+        return generatedRows;
+    }
+
+    private boolean isInWindow(int row, int col) {
+        return row >= getWindowStart() && row < generatedRows && col >= 0 && col < cols;
+    }
+
+    public boolean isWall(int row, int col) {
+        // Anything outside the window is treated as wall
+        return !isInWindow(row, col) || window.isWall(window.index(row % windowRows, col));
+    }
+
+    public boolean isValidMove(int row, int col) {
+        return !isWall(row, col);
+    }
+
+    public Maze.CellType getCellType(int row, int col) {
+        if (row == startRow && col == startCol) {
+            return Maze.CellType.START;
+        }
+        return isWall(row, col) ? Maze.CellType.WALL : Maze.CellType.PATH;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Get the number of rows generated so far, including those already discarded
+     */
+    public int getNumRows() {
+        return generatedRows;
+    }
+
+    public int getNumCols() {
+        return cols;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getStartRow() {
+        return startRow;
+    }
+
+    public int getStartCol() {
+        return startCol;
+    }
+}
@@ -0,0 +1,53 @@
+package com.mazerunner;
+
+import java.util.Random;
+
+/**
+ * Randomized Kruskal's algorithm: knocks down walls between rooms in random order,
+ * skipping any wall whose rooms are already connected, tracked with union-find.
+ */
+final class KruskalGenerator implements MazeGenerator {
+
+    @Override
+    public void carve(BitGrid grid, CellList pathCells, Random random) {
+        int roomRows = MazeGenerator.roomRows(grid);
+        int roomCols = MazeGenerator.roomCols(grid);
+
+        for (int i = 0; i < roomRows; i++) {
+            for (int j = 0; j < roomCols; j++) {
+                MazeGenerator.carveCell(grid, pathCells, 2 * i + 1, 2 * j + 1);
+            }
+        }
+
+        // Each wall is encoded as room * 2, for the wall east of the room,
+        // or room * 2 + 1, for the wall south of it
+        int[] walls = new int[roomRows * (roomCols - 1) + (roomRows - 1) * roomCols];
+        int count = 0;
+        for (int room = 0; room < roomRows * roomCols; room++) {
+            if (room % roomCols < roomCols - 1) {
+                walls[count++] = room * 2;
+            }
+            if (room / roomCols < roomRows - 1) {
+                walls[count++] = room * 2 + 1;
+            }
+        }
+        for (int k = count - 1; k > 0; k--) {
+            int swap = random.nextInt(k + 1);
+            int tmp = walls[k];
+            walls[k] = walls[swap];
+            walls[swap] = tmp;
+        }
+
+        UnionFind sets = new UnionFind(roomRows * roomCols);
+        for (int k = 0; k < count; k++) {
+            int room = walls[k] >>> 1;
+            boolean south = (walls[k] & 1) != 0;
+            int other = south ? room + roomCols : room + 1;
+            if (sets.union(room, other)) {
+                int r = 2 * (room / roomCols) + 1;
+                int c = 2 * (room % roomCols) + 1;
+                MazeGenerator.carveCell(grid, pathCells, south ? r + 1 : r, south ? c : c + 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.mazerunner;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * A file of many mazes with an offset index up front, so any level is two small
+ * reads (its index entry and dimensions) plus one read (or mapping) of that level
+ * alone. Opening a pack only reads its fixed header, whatever the number of levels.
+ *
+ * <pre>
+ *  0  int    magic "MZPK"
+ *  4  short  format version
+ *  6  short  reserved
+ *  8  int    level count n
+ * 12  int    reserved
+ * 16  long[] n + 1 file offsets; level i spans offsets[i] to offsets[i + 1]
+ *  ...       levels, each in MazeFile format
+ * </pre>
+ */
+public final class LevelPack implements Closeable {
+    static final int MAGIC = 0x4B505A4D; // "MZPK" in file byte order
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = 16;
+
+    private final FileChannel channel;
+    private final int count;
+
+    private LevelPack(FileChannel channel, int count) {
+        this.channel = channel;
+        this.count = count;
+    }
+
+    /**
+     * Save mazes as a level pack, replacing any existing file
+     * @param path the file to write
+     * @param levels the mazes in level order
+     */
+    public static void write(Path path, List<Maze> levels) throws IOException {
+        int count = levels.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES + (count + 1) * Long.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putInt(count).putInt(0);
+
+        // Every level's size is known up front, so the index is written before the levels
+        long offset = header.capacity();
+        for (Maze level : levels) {
+            header.putLong(offset);
+            offset += MazeFile.sizeOf(level.getRows(), level.getCols());
+        }
+        header.putLong(offset);
+        header.flip();
+
+        try (FileChannel out = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (header.hasRemaining()) {
+                out.write(header);
+            }
+            for (Maze level : levels) {
+                MazeFile.write(level, out);
+            }
+        }
+    }
+
+    /**
+     * Open a level pack. Only the header is read; levels are read on demand.
+     * @param path the pack file
+     */
+    public static LevelPack open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = readAt(channel, 0, HEADER_BYTES);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("Not a level pack");
+            }
+            short version = header.getShort(4);
+            if (version != VERSION) {
+                throw new IOException("Unsupported level pack version " + version);
+            }
+            int count = header.getInt(8);
+            if (count < 0 || HEADER_BYTES + (count + 1L) * Long.BYTES > channel.size()) {
+                throw new IOException("Corrupt level pack: " + count + " levels");
+            }
+            return new LevelPack(channel, count);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Get the number of levels in the pack
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Load a level onto the heap
+     * @param index the level, from 0
+     */
+    public Maze get(int index) throws IOException {
+        long offset = levelSpan(index)[0];
+        synchronized (channel) {
+            // Positioned reads share the channel position, so one level at a time
+            channel.position(offset);
+            return MazeFile.read(channel);
+        }
+    }
+
+    /**
+     * Load a level by mapping just its part of the file, without copying it
+     * @param index the level, from 0
+     */
+    public Maze map(int index) throws IOException {
+        long[] span = levelSpan(index);
+        return MazeFile.decode(channel.map(FileChannel.MapMode.READ_ONLY, span[0], span[1] - span[0]), 0);
+    }
+
+    /**
+     * Look up where a level starts and ends in the file, checking that the span holds
+     * exactly the maze its header declares
+     */
+    private long[] levelSpan(int index) throws IOException {
+        if (index < 0 || index >= count) {
+            throw new IllegalArgumentException("No level " + index + " in a pack of " + count);
+        }
+        ByteBuffer entry = readAt(channel, indexPosition(index), 2 * Long.BYTES);
+        long offset = entry.getLong(0);
+        long end = entry.getLong(Long.BYTES);
+        long indexEnd = indexPosition(count + 1);
+        if (offset < indexEnd || end - offset < MazeFile.HEADER_BYTES || end > channel.size()) {
+            throw new IOException("Corrupt level pack index at level " + index);
+        }
+        ByteBuffer dimensions = readAt(channel, offset + 8, 2 * Integer.BYTES);
+        int rows = dimensions.getInt(0);
+        int cols = dimensions.getInt(Integer.BYTES);
+        if (rows < 5 || cols < 5 || (long) rows * cols > Integer.MAX_VALUE
+                || MazeFile.sizeOf(rows, cols) != end - offset) {
+            throw new IOException("Corrupt level pack: level " + index + " spans " + (end - offset)
+                    + " bytes but its header declares a " + rows + "x" + cols + " maze");
+        }
+        return new long[] {offset, end};
+    }
+
+    private static long indexPosition(int index) {
+        return HEADER_BYTES + (long) index * Long.BYTES;
+    }
+
+    private static ByteBuffer readAt(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Level pack is truncated");
+            }
+        }
+        return buffer;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -1,45 +1,142 @@
 package com.mazerunner;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
-import java.util.Stack;
+import java.util.concurrent.CopyOnWriteArrayList;
 
-public class Maze {
+public class Maze implements MazeView {
     // Cell types
     public enum CellType {
         PATH, WALL, START, END
     }
     
-    // 0 = Path, 1 = Wall, 2 = Goal (used in console output only)
-    private int[][] grid;
+    // One wall bit per cell; the goal is tracked separately as a packed cell index
+    private final BitGrid grid;
+    private int goalCell = -1;
+    private SearchContext search; // Scratch for isPathValid, created on first call; construction uses its own
+    private MazeSolver solver;
+    private int[] goalDistances; // Path distance from each cell to the goal, -1 if unreachable; built lazily
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
     private final int rows;
     private final int cols;
     private int startRow = 1;
     private int startCol = 1;
     private int endRow;
     private int endCol;
-    private final Random random = new Random();
+    private final long seed;
+    private final Random random;
     
     // Control maze complexity
     private final double LOOP_CHANCE = 0.25; // Increase chance to create loops (multiple paths)
     private final double BRANCH_PATH_CHANCE = 0.4; // Chance to create branch paths that lead somewhere
     private final int MIN_BRANCH_LENGTH = 4; // Minimum length of branch paths - ensure they lead somewhere
     private final int MAX_BRANCH_LENGTH = 10; // Maximum length of branch paths
+    private final GoalPolicy goalPolicy;
+    
+    private final Algorithm algorithm;
+    
+    /**
+     * Algorithms for carving the underlying perfect maze, before loops and branches are added
+     */
+    public enum Algorithm {
+        // MazeFile stores the ordinal, so only ever append new algorithms
+        RECURSIVE_BACKTRACKER(new RecursiveBacktrackerGenerator()), // Long winding corridors
+        WILSON(new WilsonGenerator()),         // Unbiased (uniform spanning tree)
+        ELLER(new EllerGenerator()),           // Row at a time, O(cols) state
+        KRUSKAL(new KruskalGenerator()),       // Union-find over shuffled walls
+        PRIM(new PrimGenerator()),             // Many short dead ends
+        BINARY_TREE(new BinaryTreeGenerator()), // No state, strong diagonal bias
+        SIDEWINDER(new SidewinderGenerator()), // Row at a time, O(1) state
+        PARALLEL_TILES(new ParallelTileGenerator()); // Carving split across cores, for huge boards; later passes are serial
+        
+        private final MazeGenerator generator;
+        
+        Algorithm(MazeGenerator generator) {
+            this.generator = generator;
+        }
+    }
+    
+    /**
+     * Shortest-path search strategies for findPath
+     */
+    public enum PathAlgorithm {
+        BFS,                // Breadth-first from the source
+        A_STAR,             // Manhattan-guided, explores least on open layouts
+        BIDIRECTIONAL_BFS   // Breadth-first from both ends until they meet
+    }
+    
+    /**
+     * Receives the bounds of cells that changed, e.g. to redraw only that part of the maze
+     */
+    public interface ChangeListener {
+        /**
+         * Called on the thread that changed the maze, after the change
+         * @param top first changed row
+         * @param left first changed column
+         * @param bottom last changed row, inclusive
+         * @param right last changed column, inclusive
+         */
+        void regionChanged(int top, int left, int bottom, int right);
+    }
+    
+    /**
+     * Where a maze keeps its walls. Only the wall bitset moves: the goal distance field
+     * (4 bytes per cell once built), the solver's and isPathValid's scratch, and the
+     * lists, worklists and searches used while generating are always on the heap.
+     * Generation scratch is freed when the constructor returns, so a finished OFF_HEAP
+     * maze holds just its walls off the heap until a query builds one of the others.
+     */
+    public enum Storage {
+        HEAP,     // A long[] on the Java heap
+        OFF_HEAP  // Direct memory, which the garbage collector never scans or copies
+    }
     
     public enum Difficulty {
-        EASY(11, 11),      // Small maze
-        MEDIUM(15, 15),    // Medium maze
-        HARD(21, 21),      // Large maze
-        EXTREME(31, 31);   // Very large maze
+        EASY(11, 11, Algorithm.RECURSIVE_BACKTRACKER),      // Small maze
+        MEDIUM(15, 15, Algorithm.RECURSIVE_BACKTRACKER),    // Medium maze
+        HARD(21, 21, Algorithm.RECURSIVE_BACKTRACKER),      // Large maze
+        EXTREME(31, 31, Algorithm.RECURSIVE_BACKTRACKER);   // Very large maze
         
         final int rows;
         final int cols;
+        final Algorithm algorithm;
         
-        Difficulty(int rows, int cols) {
+        Difficulty(int rows, int cols, Algorithm algorithm) {
             this.rows = rows;
             this.cols = cols;
+            this.algorithm = algorithm;
+        }
+    }
+
+    /**
+     * Where to place the goal, as a percentile of path distance from the start
+     * over all reachable cells. 100 is the farthest reachable cell.
+     */
+    public static final class GoalPolicy {
+        public static final GoalPolicy FARTHEST = new GoalPolicy(100);
+        
+        private final int percentile;
+        
+        private GoalPolicy(int percentile) {
+            this.percentile = percentile;
+        }
+        
+        /**
+         * Place the goal at the given percentile of path distance from the start
+         * @param percentile 0 (nearest) to 100 (farthest)
+         */
+        public static GoalPolicy percentile(int percentile) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+            }
+            return percentile == 100 ? FARTHEST : new GoalPolicy(percentile);
+        }
+        
+        public int getPercentile() {
+            return percentile;
         }
     }
 
@@ -48,27 +145,103 @@ public class Maze {
     }
     
     public Maze(Difficulty difficulty) {
-        this.rows = difficulty.rows;
-        this.cols = difficulty.cols;
-        grid = new int[rows][cols];
+        this(difficulty, new Random().nextLong());
+    }
+    
+    public Maze(Difficulty difficulty, long seed) {
+        this(difficulty.rows, difficulty.cols, seed, difficulty.algorithm, GoalPolicy.FARTHEST);
+    }
+    
+    public Maze(int rows, int cols) {
+        this(rows, cols, new Random().nextLong());
+    }
+    
+    /**
+     * Create a maze of any size from a seed. The same rows, cols and seed always
+     * produce the same maze, so a level can be replayed or shared by its seed alone.
+     * @param rows number of rows, including the outer wall (at least 5)
+     * @param cols number of columns, including the outer wall (at least 5)
+     * @param seed seed for the random source driving every generation step
+     */
+    public Maze(int rows, int cols, long seed) {
+        this(rows, cols, seed, GoalPolicy.FARTHEST);
+    }
+    
+    /**
+     * Create a maze of any size from a seed, placing the goal according to a policy
+     * @param goalPolicy how far along the reachable cells the goal is placed
+     */
+    public Maze(int rows, int cols, long seed, GoalPolicy goalPolicy) {
+        this(rows, cols, seed, Algorithm.RECURSIVE_BACKTRACKER, goalPolicy);
+    }
+    
+    /**
+     * Create a maze of any size from a seed with a chosen generation algorithm
+     * @param algorithm the algorithm that carves the underlying perfect maze
+     * @param goalPolicy how far along the reachable cells the goal is placed
+     */
+    public Maze(int rows, int cols, long seed, Algorithm algorithm, GoalPolicy goalPolicy) {
+        this(rows, cols, seed, algorithm, goalPolicy, Storage.HEAP);
+    }
+    
+    /**
+     * Create a maze of any size from a seed, choosing where its walls are stored.
+     * Storage doesn't change the maze: the same seed gives the same maze either way.
+     * @param storage OFF_HEAP keeps the walls of a huge board out of the garbage collector's way
+     */
+    public Maze(int rows, int cols, long seed, Algorithm algorithm, GoalPolicy goalPolicy, Storage storage) {
+        if (rows < 5 || cols < 5) {
+            throw new IllegalArgumentException("Maze must be at least 5x5, got " + rows + "x" + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.seed = seed;
+        this.random = new Random(seed);
+        this.algorithm = algorithm;
+        this.goalPolicy = goalPolicy;
+        grid = storage == Storage.OFF_HEAP ? BitGrid.allocateDirect(rows, cols) : new BitGrid(rows, cols);
         generateMaze();
     }
+    
+    /**
+     * Regenerate a maze from its dimensions and seed
+     */
+    public static Maze fromSeed(int rows, int cols, long seed) {
+        return new Maze(rows, cols, seed);
+    }
+
+    /**
+     * Wrap an already generated grid, e.g. one loaded by MazeFile. The random source is
+     * re-seeded, so it won't continue from where the original generation stopped.
+     */
+    Maze(BitGrid grid, long seed, Algorithm algorithm, GoalPolicy goalPolicy,
+         int startRow, int startCol, int endRow, int endCol) {
+        this.grid = grid;
+        this.rows = grid.getRows();
+        this.cols = grid.getCols();
+        this.seed = seed;
+        this.random = new Random(seed);
+        this.algorithm = algorithm;
+        this.goalPolicy = goalPolicy;
+        this.startRow = startRow;
+        this.startCol = startCol;
+        this.endRow = endRow;
+        this.endCol = endCol;
+        this.goalCell = grid.index(endRow, endCol);
+    }
 
     private void generateMaze() {
         // First, fill the grid with walls
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                grid[i][j] = 1;
-            }
-        }
+        grid.fillWalls();
+        goalCell = -1;
 
-        // Use modified recursive backtracking to generate the maze
-        // Start at (1,1) since we need outer walls
-        List<int[]> pathCells = new ArrayList<>(); // Track all path cells for adding loops later
-        recursiveBacktracking(startRow, startCol, pathCells);
+        // Carve a perfect maze with the chosen algorithm
+        // Rooms start at (1,1) since we need outer walls
+        CellList pathCells = new CellList(); // Track all path cells for adding loops later
+        algorithm.generator.carve(grid, pathCells, random);
 
         // Set start point
-        grid[startRow][startCol] = 0;
+        setPath(startRow, startCol);
 
         // Add some random loops to create multiple paths
         addLoops(pathCells);
@@ -76,56 +249,26 @@ public class Maze {
         // Add meaningful branch paths instead of short dead ends
         addBranchPaths(pathCells);
 
-        // Place the goal at a reasonable distance from start
+        // Place the goal by path distance from the start
         placeGoal();
         
         // Eliminate single-cell dead ends
         eliminateSingleDeadEnds();
+        
+        // Anything derived from an earlier grid is stale now
+        invalidateCaches();
     }
 
-    private void recursiveBacktracking(int r, int c, List<int[]> pathCells) {
-        // Mark current cell as a path
-        grid[r][c] = 0;
-        pathCells.add(new int[]{r, c});
-
-        // Define direction vectors (up, right, down, left)
-        int[] dr = {-2, 0, 2, 0};
-        int[] dc = {0, 2, 0, -2};
-
-        // Shuffle the order of directions
-        List<Integer> directions = new ArrayList<>();
-        for (int i = 0; i < 4; i++) {
-            directions.add(i);
-        }
-        Collections.shuffle(directions, random);
-
-        // Try each direction
-        for (int i : directions) {
-            int newR = r + dr[i];
-            int newC = c + dc[i];
-
-            // Check if the new cell is within bounds and not visited
-            if (newR > 0 && newR < rows - 1 && newC > 0 && newC < cols - 1 && grid[newR][newC] == 1) {
-                // Carve a path between current cell and the new cell
-                grid[r + dr[i] / 2][c + dc[i] / 2] = 0;
-                pathCells.add(new int[]{r + dr[i] / 2, c + dc[i] / 2});
-                
-                // Continue from the new cell
-                recursiveBacktracking(newR, newC, pathCells);
-            }
-        }
-    }
-    
-    private void addLoops(List<int[]> pathCells) {
+    private void addLoops(CellList pathCells) {
         // Add some random connections between existing paths to create loops
         // This creates multiple paths to the goal
         int numLoops = (int)(pathCells.size() * LOOP_CHANCE / 10); // Scale based on maze size
         
         for (int i = 0; i < numLoops; i++) {
             // Select a random path cell
-            int[] cell = pathCells.get(random.nextInt(pathCells.size()));
-            int r = cell[0];
-            int c = cell[1];
+            int cell = pathCells.get(random.nextInt(pathCells.size()));
+            int r = cell / cols;
+            int c = cell % cols;
             
             // Try to connect to another path cell that's not directly connected
             int[] dr = {-2, 0, 2, 0};
@@ -144,25 +287,25 @@ public class Maze {
                 
                 // Check if the cell is a valid path cell and the connecting cell is a wall
                 if (newR > 0 && newR < rows - 1 && newC > 0 && newC < cols - 1 && 
-                    grid[newR][newC] == 0 && grid[r + dr[dirIndex]/2][c + dc[dirIndex]/2] == 1) {
+                    pathAt(newR, newC) && wallAt(r + dr[dirIndex]/2, c + dc[dirIndex]/2)) {
                     
                     // Create a passage
-                    grid[r + dr[dirIndex]/2][c + dc[dirIndex]/2] = 0;
+                    setPath(r + dr[dirIndex]/2, c + dc[dirIndex]/2);
                     break; // Only create one new passage per loop iteration
                 }
             }
         }
     }
     
-    private void addBranchPaths(List<int[]> pathCells) {
+    private void addBranchPaths(CellList pathCells) {
         // Add branch paths that lead to substantial areas rather than immediate dead ends
         int numBranches = (int)((rows * cols) * BRANCH_PATH_CHANCE / 15); // Scale based on maze size
         
         for (int i = 0; i < numBranches; i++) {
             // Choose a random path cell to start a branch from
-            int[] startCell = pathCells.get(random.nextInt(pathCells.size()));
-            int r = startCell[0];
-            int c = startCell[1];
+            int startCell = pathCells.get(random.nextInt(pathCells.size()));
+            int r = startCell / cols;
+            int c = startCell % cols;
             
             // Find a direction where we can create a meaningful branch
             int[] dr = {-1, 0, 1, 0};
@@ -192,7 +335,7 @@ public class Maze {
         int newC = c + dc;
         
         // The adjacent cell must be a wall
-        if (!isInBounds(newR, newC) || grid[newR][newC] != 1) {
+        if (!isInBounds(newR, newC) || !wallAt(newR, newC)) {
             return false;
         }
         
@@ -210,7 +353,7 @@ public class Maze {
                 return false;
             }
             
-            if (grid[checkR][checkC] == 1) {
+            if (wallAt(checkR, checkC)) {
                 spaceAvailable++;
             } else {
                 return false; // Hit an existing path too soon
@@ -231,7 +374,7 @@ public class Maze {
         // Create the branch - first connect to the starting cell
         r += dr;
         c += dc;
-        grid[r][c] = 0; // Make the wall a path
+        setPath(r, c); // Make the wall a path
         
         // Now create a winding path
         for (int i = 0; i < branchLength; i++) {
@@ -247,7 +390,7 @@ public class Maze {
                 int newC = c + dcs[j];
                 
                 // Check if we can move in this direction (must be a wall and in bounds)
-                if (isInBounds(newR, newC) && grid[newR][newC] == 1) {
+                if (isInBounds(newR, newC) && wallAt(newR, newC)) {
                     // Check if this creates an unwanted connection to another path
                     boolean createsCrossConnection = false;
                     
@@ -256,7 +399,7 @@ public class Maze {
                         int adjR = newR + drs[k];
                         int adjC = newC + dcs[k];
                         
-                        if (isInBounds(adjR, adjC) && grid[adjR][adjC] == 0 &&
+                        if (isInBounds(adjR, adjC) && pathAt(adjR, adjC) &&
                             !(adjR == r && adjC == c)) { // not the cell we came from
                             createsCrossConnection = true;
                             break;
@@ -306,7 +449,7 @@ public class Maze {
             // Move in the chosen direction
             r += dr;
             c += dc;
-            grid[r][c] = 0; // Carve the path
+            setPath(r, c); // Carve the path
             
             // Occasionally add a small side branch to make it more interesting
             if (i > 2 && random.nextDouble() < 0.2) {
@@ -338,7 +481,7 @@ public class Maze {
             int newC = c + dc[dirIndex];
             
             // Check if we can add a side branch
-            if (isInBounds(newR, newC) && grid[newR][newC] == 1) {
+            if (isInBounds(newR, newC) && wallAt(newR, newC)) {
                 // Check if this creates an unwanted connection
                 boolean createsCrossConnection = false;
                 
@@ -347,7 +490,7 @@ public class Maze {
                     int adjR = newR + dr[i];
                     int adjC = newC + dc[i];
                     
-                    if (isInBounds(adjR, adjC) && grid[adjR][adjC] == 0 &&
+                    if (isInBounds(adjR, adjC) && pathAt(adjR, adjC) &&
                         !(adjR == r && adjC == c)) { // not the cell we came from
                         createsCrossConnection = true;
                         break;
@@ -356,7 +499,7 @@ public class Maze {
                 
                 if (!createsCrossConnection) {
                     // Add the side branch
-                    grid[newR][newC] = 0;
+                    setPath(newR, newC);
                     
                     // Occasionally extend it by 1-2 more cells
                     int extension = random.nextInt(3);
@@ -367,7 +510,7 @@ public class Maze {
                         int extR = currR + dr[dirIndex];
                         int extC = currC + dc[dirIndex];
                         
-                        if (isInBounds(extR, extC) && grid[extR][extC] == 1) {
+                        if (isInBounds(extR, extC) && wallAt(extR, extC)) {
                             // Check if this creates an unwanted connection
                             boolean createsExtensionCrossConnection = false;
                             
@@ -376,7 +519,7 @@ public class Maze {
                                 int adjR = extR + dr[j];
                                 int adjC = extC + dc[j];
                                 
-                                if (isInBounds(adjR, adjC) && grid[adjR][adjC] == 0 &&
+                                if (isInBounds(adjR, adjC) && pathAt(adjR, adjC) &&
                                     !(adjR == currR && adjC == currC)) { // not cell we came from
                                     createsExtensionCrossConnection = true;
                                     break;
@@ -384,7 +527,7 @@ public class Maze {
                             }
                             
                             if (!createsExtensionCrossConnection) {
-                                grid[extR][extC] = 0;
+                                setPath(extR, extC);
                                 currR = extR;
                                 currC = extC;
                             } else {
@@ -418,14 +561,14 @@ public class Maze {
             int checkR = r + dr[dirIndex];
             int checkC = c + dc[dirIndex];
             
-            if (isInBounds(checkR, checkC) && grid[checkR][checkC] == 1) {
+            if (isInBounds(checkR, checkC) && wallAt(checkR, checkC)) {
                 // Look one more cell ahead to see if there's a path
                 int pathR = checkR + dr[dirIndex];
                 int pathC = checkC + dc[dirIndex];
                 
-                if (isInBounds(pathR, pathC) && grid[pathR][pathC] == 0) {
+                if (isInBounds(pathR, pathC) && pathAt(pathR, pathC)) {
                     // Connect to this path
-                    grid[checkR][checkC] = 0;
+                    setPath(checkR, checkC);
                     return;
                 }
             }
@@ -433,80 +576,108 @@ public class Maze {
     }
     
     private void eliminateSingleDeadEnds() {
-        // Find and eliminate very short dead ends
-        boolean madeChanges;
-        do {
+        // Find and eliminate very short dead ends. This applies the same rules, in the same
+        // order and with the same random draws, as rescanning the whole grid until a scan
+        // converts nothing to a wall. After the first scan, though, only cells whose
+        // surroundings changed are looked at again: a cell's outcome depends only on cells
+        // within two steps of it, and only cells that get acted on draw from the random source.
+        DeadEndWorklist work = new DeadEndWorklist();
+        boolean madeChanges = false;
+        
+        // First pass visits every open interior cell in row-major order, skipping walls
+        // in bulk; the outer wall rows and columns are never open
+        for (int cell = grid.nextOpenCell(0); cell >= 0; cell = grid.nextOpenCell(cell + 1)) {
+            work.cursor = cell;
+            madeChanges |= eliminateDeadEnd(cell, work);
+        }
+        
+        // Later passes visit only the queued cells, still in row-major order
+        while (madeChanges) {
             madeChanges = false;
+            work.startNextPass();
+            while (!work.isEmpty()) {
+                madeChanges |= eliminateDeadEnd(work.poll(), work);
+            }
+        }
+    }
+    
+    /**
+     * Remove or extend an interior cell if it is an isolated single-cell dead end
+     * @return true if the cell was converted to a wall
+     */
+    private boolean eliminateDeadEnd(int cell, DeadEndWorklist work) {
+        // Only paths can be dead ends. Counting raw wall bits around the cell can only
+        // overcount (the outer wall is included), so fewer than 3 rules it out cheaply.
+        if (grid.isWall(cell) || cell == goalCell) {
+            return false;
+        }
+        int rawWalls = (grid.isWall(cell - cols) ? 1 : 0) + (grid.isWall(cell + 1) ? 1 : 0)
+                + (grid.isWall(cell + cols) ? 1 : 0) + (grid.isWall(cell - 1) ? 1 : 0);
+        if (rawWalls < 3) {
+            return false;
+        }
+        int r = cell / cols;
+        int c = cell % cols;
+        
+        // Count adjacent walls
+        int[] dr = {-1, 0, 1, 0};
+        int[] dc = {0, 1, 0, -1};
+        int wallCount = 0;
+        
+        for (int i = 0; i < 4; i++) {
+            int newR = r + dr[i];
+            int newC = c + dc[i];
             
-            for (int r = 1; r < rows - 1; r++) {
-                for (int c = 1; c < cols - 1; c++) {
-                    if (grid[r][c] == 0) { // If it's a path
-                        // Count adjacent walls
-                        int[] dr = {-1, 0, 1, 0};
-                        int[] dc = {0, 1, 0, -1};
-                        int wallCount = 0;
-                        
-                        for (int i = 0; i < 4; i++) {
-                            int newR = r + dr[i];
-                            int newC = c + dc[i];
-                            
-                            if (isInBounds(newR, newC) && grid[newR][newC] == 1) {
-                                wallCount++;
-                            }
-                        }
-                        
-                        // If it's a dead end with 3 walls (only one path out)
-                        if (wallCount == 3 && 
-                           !(r == startRow && c == startCol) && // not the start
-                           !(r == endRow && c == endCol)) {     // not the end
-                           
-                            // Check if it's not part of a longer branch
-                            boolean isIsolatedCell = true;
-                            
-                            // Find the one direction that's not a wall
-                            for (int i = 0; i < 4; i++) {
-                                int newR = r + dr[i];
-                                int newC = c + dc[i];
-                                
-                                if (isInBounds(newR, newC) && grid[newR][newC] == 0) {
-                                    // Check if this cell also has multiple paths out
-                                    int adjWallCount = 0;
-                                    
-                                    for (int j = 0; j < 4; j++) {
-                                        int adjR = newR + dr[j];
-                                        int adjC = newC + dc[j];
-                                        
-                                        if (isInBounds(adjR, adjC) && grid[adjR][adjC] == 1) {
-                                            adjWallCount++;
-                                        }
-                                    }
-                                    
-                                    // If this cell has 2 or fewer walls, it's a junction
-                                    // (meaning our dead-end cell is part of a path)
-                                    if (adjWallCount <= 2) {
-                                        isIsolatedCell = false;
-                                    }
-                                }
-                            }
-                            
-                            if (isIsolatedCell) {
-                                // Convert to a wall or extend it
-                                if (random.nextDouble() < 0.2) {
-                                    // 20% chance to extend instead of remove
-                                    extendDeadEnd(r, c);
-                                } else {
-                                    grid[r][c] = 1; // Convert to wall
-                                    madeChanges = true;
-                                }
-                            }
-                        }
+            if (isInBounds(newR, newC) && wallAt(newR, newC)) {
+                wallCount++;
+            }
+        }
+        
+        // If it's a dead end with 3 walls (only one path out)
+        if (wallCount != 3 ||
+            (r == startRow && c == startCol) || // not the start
+            (r == endRow && c == endCol)) {     // not the end
+            return false;
+        }
+        
+        // Check if it's not part of a longer branch
+        for (int i = 0; i < 4; i++) {
+            int newR = r + dr[i];
+            int newC = c + dc[i];
+            
+            if (isInBounds(newR, newC) && pathAt(newR, newC)) {
+                // Check if this cell also has multiple paths out
+                int adjWallCount = 0;
+                
+                for (int j = 0; j < 4; j++) {
+                    int adjR = newR + dr[j];
+                    int adjC = newC + dc[j];
+                    
+                    if (isInBounds(adjR, adjC) && wallAt(adjR, adjC)) {
+                        adjWallCount++;
                     }
                 }
+                
+                // If this cell has 2 or fewer walls, it's a junction
+                // (meaning our dead-end cell is part of a path)
+                if (adjWallCount <= 2) {
+                    return false;
+                }
             }
-        } while (madeChanges);
+        }
+        
+        // Convert to a wall or extend it
+        if (random.nextDouble() < 0.2) {
+            // 20% chance to extend instead of remove
+            extendDeadEnd(r, c, work);
+            return false;
+        }
+        setWall(r, c); // Convert to wall
+        work.changed(r, c);
+        return true;
     }
     
-    private void extendDeadEnd(int r, int c) {
+    private void extendDeadEnd(int r, int c, DeadEndWorklist work) {
         // Find the one open direction
         int[] dr = {-1, 0, 1, 0};
         int[] dc = {0, 1, 0, -1};
@@ -515,15 +686,16 @@ public class Maze {
             int newR = r + dr[i];
             int newC = c + dc[i];
             
-            if (isInBounds(newR, newC) && grid[newR][newC] == 0) {
+            if (isInBounds(newR, newC) && pathAt(newR, newC)) {
                 // Go in the opposite direction
                 int oppDir = (i + 2) % 4;
                 int extR = r + dr[oppDir];
                 int extC = c + dc[oppDir];
                 
                 // If there's a wall we can convert
-                if (isInBounds(extR, extC) && grid[extR][extC] == 1) {
-                    grid[extR][extC] = 0; // Make it a path
+                if (isInBounds(extR, extC) && wallAt(extR, extC)) {
+                    setPath(extR, extC); // Make it a path
+                    work.changed(extR, extC);
                     
                     // Extend further with diminishing probability
                     int currR = extR;
@@ -533,8 +705,9 @@ public class Maze {
                         int nextR = currR + dr[oppDir];
                         int nextC = currC + dc[oppDir];
                         
-                        if (isInBounds(nextR, nextC) && grid[nextR][nextC] == 1) {
-                            grid[nextR][nextC] = 0;
+                        if (isInBounds(nextR, nextC) && wallAt(nextR, nextC)) {
+                            setPath(nextR, nextC);
+                            work.changed(nextR, nextC);
                             currR = nextR;
                             currC = nextC;
                         } else {
@@ -548,86 +721,551 @@ public class Maze {
         }
     }
     
+    /**
+     * Cells to revisit during dead-end elimination. Cells after the cursor go into the
+     * current pass (a min-heap, so they come out in row-major order); cells at or before
+     * the cursor wait for the next pass. Bitsets keep each cell queued at most once.
+     */
+    private final class DeadEndWorklist {
+        private final long[] inCurrent = new long[(rows * cols + 63) >>> 6];
+        private final long[] inNext = new long[(rows * cols + 63) >>> 6];
+        private final CellList next = new CellList();
+        private int[] heap = new int[64];
+        private int heapSize = 0;
+        private boolean firstPass = true;
+        int cursor;
+        
+        /**
+         * Queue every interior cell within two steps of a cell that just changed
+         */
+        void changed(int r, int c) {
+            for (int dr = -2; dr <= 2; dr++) {
+                int span = 2 - Math.abs(dr);
+                for (int dc = -span; dc <= span; dc++) {
+                    if (isInBounds(r + dr, c + dc)) {
+                        enqueue(grid.index(r + dr, c + dc));
+                    }
+                }
+            }
+        }
+        
+        private void enqueue(int cell) {
+            if (cell > cursor) {
+                // The first pass reaches every later cell anyway
+                if (!firstPass && !testAndSet(inCurrent, cell)) {
+                    push(cell);
+                }
+            } else if (!testAndSet(inNext, cell)) {
+                next.add(cell);
+            }
+        }
+        
+        void startNextPass() {
+            firstPass = false;
+            for (int i = 0; i < next.size(); i++) {
+                int cell = next.get(i);
+                inNext[cell >>> 6] &= ~(1L << cell);
+                inCurrent[cell >>> 6] |= 1L << cell;
+                push(cell);
+            }
+            next.clear();
+            cursor = -1;
+        }
+        
+        boolean isEmpty() {
+            return heapSize == 0;
+        }
+        
+        int poll() {
+            int cell = heap[0];
+            int last = heap[--heapSize];
+            
+            // Sift the last element down from the root
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= heapSize) {
+                    break;
+                }
+                if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                    child++;
+                }
+                if (last <= heap[child]) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = last;
+            
+            inCurrent[cell >>> 6] &= ~(1L << cell);
+            cursor = cell;
+            return cell;
+        }
+        
+        private void push(int cell) {
+            if (heapSize == heap.length) {
+                heap = Arrays.copyOf(heap, heapSize * 2);
+            }
+            
+            // Sift up from the new leaf
+            int i = heapSize++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heap[parent] <= cell) {
+                    break;
+                }
+                heap[i] = heap[parent];
+                i = parent;
+            }
+            heap[i] = cell;
+        }
+        
+        private boolean testAndSet(long[] bits, int cell) {
+            long mask = 1L << cell;
+            boolean wasSet = (bits[cell >>> 6] & mask) != 0;
+            bits[cell >>> 6] |= mask;
+            return wasSet;
+        }
+    }
+    
+    private boolean wallAt(int r, int c) {
+        return grid.isWall(grid.index(r, c));
+    }
+    
+    private boolean pathAt(int r, int c) {
+        int index = grid.index(r, c);
+        return !grid.isWall(index) && index != goalCell;
+    }
+    
+    private void setWall(int r, int c) {
+        grid.setWall(grid.index(r, c));
+    }
+    
+    private void setPath(int r, int c) {
+        grid.clearWall(grid.index(r, c));
+    }
+    
     private boolean isInBounds(int r, int c) {
         return r > 0 && r < rows - 1 && c > 0 && c < cols - 1;
     }
 
     private void placeGoal() {
-        // Try to place the goal far from the start
-        int maxDistance = 0;
+        // Breadth-first search from the start over open cells. Cells come out in order
+        // of non-decreasing path distance, so the cell at any distance percentile is a
+        // direct lookup. The scratch is dropped with this call, so a maze doesn't keep
+        // 12 bytes per cell of it for life.
+        SearchContext search = new SearchContext();
+        breadthFirstSearch(search, grid.index(startRow, startCol), -1);
+        int reached = search.visitedCount();
         
-        // Try several random positions and pick the one farthest from start
-        for (int attempt = 0; attempt < 50; attempt++) {
-            int r = random.nextInt(rows - 2) + 1;
-            int c = random.nextInt(cols - 2) + 1;
-            
-            // Skip walls
-            if (grid[r][c] != 0) continue;
-            
-            // Calculate Manhattan distance
-            int distance = Math.abs(r - startRow) + Math.abs(c - startCol);
+        if (reached < 2) {
+            throw new IllegalStateException("No open cell reachable from the start");
+        }
+        
+        // Pick the target distance from the policy, skipping the start itself
+        int target = search.distance(search.visitedCell(1 + (int) ((long) (reached - 2) * goalPolicy.getPercentile() / 100)));
+        
+        // Choose randomly among all reachable cells at exactly that distance
+        int first = 1;
+        while (search.distance(search.visitedCell(first)) < target) {
+            first++;
+        }
+        int last = first;
+        while (last + 1 < reached && search.distance(search.visitedCell(last + 1)) == target) {
+            last++;
+        }
+        int goal = search.visitedCell(first + random.nextInt(last - first + 1));
+        
+        endRow = goal / cols;
+        endCol = goal % cols;
+        
+        // Mark the goal so later passes don't treat it as an ordinary path cell
+        goalCell = goal;
+    }
+    
+    /**
+     * Check that the goal can be reached from the start
+     * @return true if there is an open path from start to goal
+     */
+    public synchronized boolean isPathValid() {
+        if (goalDistances != null) {
+            return goalDistances[grid.index(startRow, startCol)] >= 0; // Kept up to date by every change
+        }
+        int endCell = grid.index(endRow, endCol);
+        return breadthFirstSearch(searchContext(), grid.index(startRow, startCol), endCell) >= 0;
+    }
+    
+    /**
+     * Breadth-first search over non-wall cells. The outer wall is never opened,
+     * so neighbours of a reached cell are always inside the grid.
+     * @param fromCell packed index to search from
+     * @param stopCell packed index to stop at, or -1 to visit everything reachable
+     * @return the path distance to stopCell, or -1 if it wasn't reached
+     */
+    private int breadthFirstSearch(SearchContext search, int fromCell, int stopCell) {
+        search.start(rows * cols);
+        search.visit(fromCell, 0);
+        
+        while (search.hasNext()) {
+            int cell = search.next();
+            int distance = search.distance(cell);
+            if (cell == stopCell) {
+                return distance;
+            }
             
-            if (distance > maxDistance) {
-                maxDistance = distance;
-                endRow = r;
-                endCol = c;
+            visitIfOpen(search, cell - cols, distance + 1);
+            visitIfOpen(search, cell + 1, distance + 1);
+            visitIfOpen(search, cell + cols, distance + 1);
+            visitIfOpen(search, cell - 1, distance + 1);
+        }
+        return -1;
+    }
+    
+    private void visitIfOpen(SearchContext search, int cell, int distance) {
+        if (!grid.isWall(cell)) {
+            search.visit(cell, distance);
+        }
+    }
+    
+    /**
+     * Get the search scratch space kept for repeated queries, created on first use
+     */
+    private SearchContext searchContext() {
+        if (search == null) {
+            search = new SearchContext();
+        }
+        return search;
+    }
+
+    /**
+     * Find a shortest path from a cell to the goal
+     * @return packed cell indices (row * cols + col) from (row, col) to the goal, both
+     *         included, or an empty array if (row, col) is a wall or cannot reach the goal
+     */
+    public int[] findPath(int row, int col) {
+        return findPath(row, col, PathAlgorithm.BIDIRECTIONAL_BFS);
+    }
+    
+    /**
+     * Find a shortest path from a cell to the goal with a chosen search strategy
+     * @return packed cell indices (row * cols + col) from (row, col) to the goal, both
+     *         included, or an empty array if (row, col) is a wall or cannot reach the goal
+     */
+    public synchronized int[] findPath(int row, int col, PathAlgorithm algorithm) {
+        if (!isValidMove(row, col)) {
+            return MazeSolver.NO_PATH;
+        }
+        if (solver == null) {
+            solver = new MazeSolver(grid);
+        }
+        int from = grid.index(row, col);
+        int to = grid.index(endRow, endCol);
+        switch (algorithm) {
+            case BFS: return solver.breadthFirst(from, to);
+            case A_STAR: return solver.aStar(from, to);
+            default: return solver.bidirectional(from, to);
+        }
+    }
+    
+    /**
+     * Get the number of moves on a shortest path from a cell to the goal
+     * @return the number of moves, or -1 if the goal can't be reached
+     */
+    public int shortestPathLength(int row, int col) {
+        return distanceToGoal(row, col);
+    }
+    
+    /**
+     * Get the path distance from a cell to the goal. The first call runs one
+     * breadth-first search from the goal; later calls are array lookups.
+     * @return the number of moves, or -1 if (row, col) is a wall or can't reach the goal
+     */
+    public synchronized int distanceToGoal(int row, int col) {
+        if (!isOnGrid(row, col)) {
+            return -1;
+        }
+        return goalDistanceField()[grid.index(row, col)];
+    }
+    
+    /**
+     * Get a copy of every cell's distance to the goal, indexed row * cols + col, -1 for
+     * walls and cells that can't reach it. One lock for a whole scan, not one per cell.
+     */
+    synchronized int[] goalDistances() {
+        return goalDistanceField().clone();
+    }
+    
+    /**
+     * Get the number of moves on a shortest path from the start to the goal (par for the level)
+     */
+    public int optimalMoves() {
+        return distanceToGoal(startRow, startCol);
+    }
+    
+    /**
+     * Get the first step of a shortest path from a cell to the goal, for hints
+     * @return the packed index (row * cols + col) of the neighbouring cell to move to,
+     *         or -1 if (row, col) is the goal or cannot reach it
+     */
+    public synchronized int nextBestMove(int row, int col) {
+        int distance = distanceToGoal(row, col);
+        if (distance <= 0) {
+            return -1;
+        }
+        int[] field = goalDistanceField();
+        int cell = grid.index(row, col);
+        int wanted = distance - 1;
+        // Up, right, down, left, checked in place so a hint allocates nothing
+        if (field[cell - cols] == wanted) {
+            return cell - cols;
+        }
+        if (field[cell + 1] == wanted) {
+            return cell + 1;
+        }
+        if (field[cell + cols] == wanted) {
+            return cell + cols;
+        }
+        if (field[cell - 1] == wanted) {
+            return cell - 1;
+        }
+        return -1;
+    }
+    
+    private int[] goalDistanceField() {
+        if (goalDistances == null) {
+            SearchContext search = new SearchContext(); // Only the field outlives the search
+            breadthFirstSearch(search, grid.index(endRow, endCol), -1);
+            int[] field = new int[rows * cols];
+            Arrays.fill(field, -1);
+            for (int i = 0; i < search.visitedCount(); i++) {
+                int cell = search.visitedCell(i);
+                field[cell] = search.distance(cell);
             }
+            goalDistances = field;
         }
-        
-        // Make sure there's a valid path from start to end
-        if (!isPathValid()) {
-            // If no valid path, regenerate the maze
-            // This is a fallback and should rarely happen with our algorithm
-            generateMaze();
-            return;
+        return goalDistances;
+    }
+    
+    public void addChangeListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeChangeListener(ChangeListener listener) {
+        listeners.remove(listener);
+    }
+    
+    /**
+     * Open a wall cell, e.g. a door in a dynamic level. The goal distance field is
+     * updated around the cell rather than rebuilt.
+     * @return true if the cell was a wall
+     * @throws IllegalArgumentException for cells on or outside the outer wall, which must stay closed
+     */
+    public synchronized boolean openCell(int row, int col) {
+        if (!isInBounds(row, col)) {
+            throw new IllegalArgumentException("Can't open a cell on the outer wall: " + row + "," + col);
+        }
+        int cell = grid.index(row, col);
+        if (!grid.isWall(cell)) {
+            return false;
+        }
+        grid.clearWall(cell);
+        if (goalDistances != null) {
+            lowerDistances(cell);
+        }
+        fireRegionChanged(row, col, row, col);
+        return true;
+    }
+    
+    /**
+     * Close an open cell. Only cells whose shortest routes all ran through it get new
+     * distances. The goal may become unreachable, which isPathValid reports.
+     * @return true if the cell was open
+     * @throws IllegalArgumentException for the start or the goal
+     */
+    public synchronized boolean closeCell(int row, int col) {
+        if (!isValidMove(row, col)) {
+            return false;
+        }
+        if ((row == startRow && col == startCol) || (row == endRow && col == endCol)) {
+            throw new IllegalArgumentException("Can't close the start or the goal");
+        }
+        int cell = grid.index(row, col);
+        grid.setWall(cell);
+        if (goalDistances != null) {
+            raiseDistances(cell);
+        }
+        fireRegionChanged(row, col, row, col);
+        return true;
+    }
+    
+    /**
+     * Move a wall from one cell to another: open the first and close the second.
+     * Both cells are checked before either changes.
+     * @return true if anything changed
+     */
+    public synchronized boolean moveWall(int fromRow, int fromCol, int toRow, int toCol) {
+        if (!isInBounds(fromRow, fromCol)) {
+            throw new IllegalArgumentException("Can't open a cell on the outer wall: " + fromRow + "," + fromCol);
+        }
+        if ((toRow == startRow && toCol == startCol) || (toRow == endRow && toCol == endCol)) {
+            throw new IllegalArgumentException("Can't close the start or the goal");
+        }
+        // Open first, so cells near both ends keep a route where one exists
+        boolean opened = openCell(fromRow, fromCol);
+        boolean closed = closeCell(toRow, toCol);
+        return opened || closed;
+    }
+    
+    private void fireRegionChanged(int top, int left, int bottom, int right) {
+        for (ChangeListener listener : listeners) {
+            listener.regionChanged(top, left, bottom, right);
+        }
+    }
+    
+    /**
+     * Update the distance field after opening a cell. Distances can only shrink, so
+     * spread outward from the cell through just the cells that get closer to the goal.
+     */
+    private void lowerDistances(int cell) {
+        int[] field = goalDistances;
+        int[] offsets = {-cols, 1, cols, -1};
+        int best = -1;
+        for (int offset : offsets) {
+            int distance = field[cell + offset];
+            if (distance >= 0 && (best < 0 || distance + 1 < best)) {
+                best = distance + 1;
+            }
+        }
+        if (best < 0) {
+            return; // Opened into a region that can't reach the goal either
         }
         
-        // Mark the goal for console visualization (not needed for JavaFX rendering)
-        grid[endRow][endCol] = 2;
+        field[cell] = best;
+        CellList queue = new CellList();
+        queue.add(cell);
+        for (int head = 0; head < queue.size(); head++) {
+            int current = queue.get(head);
+            int distance = field[current] + 1;
+            for (int offset : offsets) {
+                int next = current + offset;
+                if (!grid.isWall(next) && (field[next] < 0 || field[next] > distance)) {
+                    field[next] = distance;
+                    queue.add(next);
+                }
+            }
+        }
     }
     
-    private boolean isPathValid() {
-        // Use breadth-first search to verify there's a path from start to end
-        boolean[][] visited = new boolean[rows][cols];
-        List<int[]> queue = new ArrayList<>();
+    /**
+     * Update the distance field after closing a cell. A cell is orphaned when none of
+     * its neighbours one step closer to the goal still has its distance. Orphans are
+     * found in order of distance, then the search is re-run over just the orphans,
+     * seeded from the neighbours they still have.
+     */
+    private void raiseDistances(int cell) {
+        final int orphaned = -2;
+        int[] field = goalDistances;
+        int[] offsets = {-cols, 1, cols, -1};
+        int closed = field[cell];
+        field[cell] = -1;
+        if (closed < 0) {
+            return; // Couldn't reach the goal anyway
+        }
         
-        // Add start position to queue
-        queue.add(new int[]{startRow, startCol});
-        visited[startRow][startCol] = true;
+        // Every cell one step closer is settled before a cell is checked, as each
+        // distance is queued only while the previous one is processed
+        CellList orphans = new CellList();
+        CellList queue = new CellList();
+        for (int offset : offsets) {
+            if (field[cell + offset] == closed + 1) {
+                queue.add(cell + offset);
+            }
+        }
+        for (int head = 0; head < queue.size(); head++) {
+            int current = queue.get(head);
+            int distance = field[current];
+            if (distance == orphaned) {
+                continue; // Queued by more than one neighbour
+            }
+            boolean supported = false;
+            for (int offset : offsets) {
+                if (field[current + offset] == distance - 1) {
+                    supported = true;
+                    break;
+                }
+            }
+            if (supported) {
+                continue;
+            }
+            field[current] = orphaned;
+            orphans.add(current);
+            for (int offset : offsets) {
+                if (field[current + offset] == distance + 1) {
+                    queue.add(current + offset);
+                }
+            }
+        }
         
-        int[] dr = {-1, 0, 1, 0};
-        int[] dc = {0, 1, 0, -1};
+        // Seed each orphan from its nearest settled neighbour, keyed (distance << 32) | cell
+        long[] seeds = new long[orphans.size()];
+        int seedCount = 0;
+        for (int i = 0; i < orphans.size(); i++) {
+            int orphan = orphans.get(i);
+            int best = -1;
+            for (int offset : offsets) {
+                int distance = field[orphan + offset];
+                if (distance >= 0 && (best < 0 || distance < best)) {
+                    best = distance;
+                }
+            }
+            if (best >= 0) {
+                seeds[seedCount++] = ((long) (best + 1) << 32) | orphan;
+            }
+        }
+        Arrays.sort(seeds, 0, seedCount);
         
-        int idx = 0;
-        while (idx < queue.size()) {
-            int[] pos = queue.get(idx++);
-            int r = pos[0];
-            int c = pos[1];
-            
-            // Check if we've reached the end
-            if (r == endRow && c == endCol) {
-                return true;
+        // Breadth-first over the orphans, taking seeds in as the frontier reaches their distance
+        queue.clear();
+        int head = 0;
+        int nextSeed = 0;
+        while (nextSeed < seedCount || head < queue.size()) {
+            int current;
+            if (head < queue.size() && (nextSeed == seedCount || field[queue.get(head)] < (int) (seeds[nextSeed] >>> 32))) {
+                current = queue.get(head++);
+            } else {
+                long seed = seeds[nextSeed++];
+                current = (int) seed;
+                if (field[current] != orphaned) {
+                    continue; // Already reached at no greater distance
+                }
+                field[current] = (int) (seed >>> 32);
             }
-            
-            // Check all four directions
-            for (int i = 0; i < 4; i++) {
-                int newR = r + dr[i];
-                int newC = c + dc[i];
-                
-                // If in bounds, not a wall, and not visited
-                if (newR >= 0 && newR < rows && newC >= 0 && newC < cols && 
-                    grid[newR][newC] != 1 && !visited[newR][newC]) {
-                    
-                    queue.add(new int[]{newR, newC});
-                    visited[newR][newC] = true;
+            int distance = field[current] + 1;
+            for (int offset : offsets) {
+                int next = current + offset;
+                if (field[next] == orphaned) {
+                    field[next] = distance;
+                    queue.add(next);
                 }
             }
         }
         
-        // If we've exhausted the queue without finding the end, there's no valid path
-        return false;
+        // Orphans nothing reached are cut off from the goal now
+        for (int i = 0; i < orphans.size(); i++) {
+            if (field[orphans.get(i)] == orphaned) {
+                field[orphans.get(i)] = -1;
+            }
+        }
     }
-
+    
+    /**
+     * Drop anything derived from the grid; call after any change to walls or the goal
+     */
+    private void invalidateCaches() {
+        goalDistances = null;
+    }
+    
     public int getRows() {
         return rows;
     }
@@ -645,18 +1283,17 @@ public class Maze {
         return cols;
     }
 
+    private boolean isOnGrid(int row, int col) {
+        // (row | col) < 0 catches either coordinate being negative in one test
+        return (row | col) >= 0 && row < rows && col < cols;
+    }
+
     public boolean isWall(int row, int col) {
-        if (row < 0 || row >= rows || col < 0 || col >= cols) {
-            return true; // Treat out of bounds as wall
-        }
-        return grid[row][col] == 1;
+        return !isOnGrid(row, col) || wallAt(row, col); // Treat out of bounds as wall
     }
     
     public boolean isValidMove(int row, int col) {
-        if (row < 0 || row >= rows || col < 0 || col >= cols) {
-            return false; // Out of bounds
-        }
-        return grid[row][col] != 1; // Not a wall
+        return isOnGrid(row, col) && !wallAt(row, col); // Not out of bounds and not a wall
     }
     
     public CellType getCellType(int row, int col) {
@@ -664,13 +1301,46 @@ public class Maze {
             return CellType.START;
         } else if (row == endRow && col == endCol) {
             return CellType.END;
-        } else if (grid[row][col] == 1) {
+        } else if (isWall(row, col)) {
             return CellType.WALL;
         } else {
             return CellType.PATH;
         }
     }
 
+    /**
+     * Get the seed this maze was generated from
+     * @return the seed; passing it back with the same dimensions recreates this maze
+     */
+    public long getSeed() {
+        return seed;
+    }
+    
+    /**
+     * Get the algorithm that carved this maze
+     */
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Get the policy the goal was placed with
+     */
+    public GoalPolicy getGoalPolicy() {
+        return goalPolicy;
+    }
+
+    /**
+     * Get where the walls are stored. A memory-mapped maze counts as off-heap until it is changed.
+     */
+    public Storage getStorage() {
+        return grid.isDirect() ? Storage.OFF_HEAP : Storage.HEAP;
+    }
+
+    BitGrid grid() {
+        return grid;
+    }
+
     public int getStartRow() {
         return startRow;
     }
@@ -697,7 +1367,7 @@ public class Maze {
                     sb.append('S');
                 } else if (r == endRow && c == endCol) {
                     sb.append('G');
-                } else if (grid[r][c] == 1) {
+                } else if (wallAt(r, c)) {
                     sb.append('█');
                 } else {
                     sb.append(' ');
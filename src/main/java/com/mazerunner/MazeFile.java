@@ -0,0 +1,246 @@
+package com.mazerunner;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Versioned binary maze format: a fixed little-endian header followed by the wall
+ * bitmap, one bit per cell in BitGrid word order. Because the bitmap is stored
+ * exactly as the grid holds it, a mapped file backs a maze with no copy.
+ *
+ * <pre>
+ *  0  int    magic "MAZE"
+ *  4  short  format version
+ *  6  byte   generator (Maze.Algorithm ordinal)
+ *  7  byte   goal policy percentile
+ *  8  int    rows
+ * 12  int    cols
+ * 16  long   seed
+ * 24  int    start row, start col, end row, end col
+ * 40  long[] wall bitmap, ceil(rows * cols / 64) words
+ * </pre>
+ */
+public final class MazeFile {
+    static final int MAGIC = 0x455A414D; // "MAZE" in file byte order
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = 40;
+
+    private static final int CHUNK_BYTES = 1 << 16;
+
+    private MazeFile() {
+    }
+
+    /**
+     * Save a maze, replacing any existing file
+     * @param maze the maze to save
+     * @param path the file to write
+     */
+    public static void write(Maze maze, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            write(maze, channel);
+        }
+    }
+
+    /**
+     * Write a maze at the channel's current position
+     * @return the number of bytes written, always sizeOf(rows, cols)
+     */
+    static long write(Maze maze, WritableByteChannel channel) throws IOException {
+        BitGrid grid = maze.grid();
+        long size = sizeOf(maze.getRows(), maze.getCols());
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(CHUNK_BYTES, size)).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC)
+                .putShort(VERSION)
+                .put((byte) maze.getAlgorithm().ordinal())
+                .put((byte) maze.getGoalPolicy().getPercentile())
+                .putInt(maze.getRows())
+                .putInt(maze.getCols())
+                .putLong(maze.getSeed())
+                .putInt(maze.getStartRow())
+                .putInt(maze.getStartCol())
+                .putInt(maze.getEndRow())
+                .putInt(maze.getEndCol());
+
+        int wordCount = grid.wordCount();
+        for (int w = 0; w < wordCount; w++) {
+            if (buffer.remaining() < Long.BYTES) {
+                drain(buffer, channel);
+            }
+            buffer.putLong(grid.word(w));
+        }
+        drain(buffer, channel);
+        return size;
+    }
+
+    private static void drain(ByteBuffer buffer, WritableByteChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Get the encoded size of a maze
+     */
+    static long sizeOf(int rows, int cols) {
+        return HEADER_BYTES + (long) BitGrid.wordCount(rows, cols) * Long.BYTES;
+    }
+
+    /**
+     * Load a maze onto the heap. The file is no longer needed afterwards.
+     * @param path the file to read
+     */
+    public static Maze read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return read(channel);
+        }
+    }
+
+    /**
+     * Read one maze from the channel's current position into a heap grid
+     */
+    static Maze read(ReadableByteChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(CHUNK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.limit(HEADER_BYTES);
+        fill(buffer, channel);
+        Header header = new Header(buffer, 0);
+
+        // Stream the bitmap straight into the grid's words, a chunk at a time
+        long[] words = new long[BitGrid.wordCount(header.rows, header.cols)];
+        int done = 0;
+        while (done < words.length) {
+            int count = Math.min(words.length - done, CHUNK_BYTES / Long.BYTES);
+            buffer.clear().limit(count * Long.BYTES);
+            fill(buffer, channel);
+            buffer.asLongBuffer().get(words, done, count);
+            done += count;
+        }
+        return header.toMaze(new BitGrid(header.rows, header.cols, words));
+    }
+
+    private static void fill(ByteBuffer buffer, ReadableByteChannel channel) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Maze file is truncated");
+            }
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Load a maze by memory-mapping its file. Nothing is copied: walls are read from
+     * the mapping on demand, so even a 100 MB maze opens in milliseconds. The file
+     * is never written; changing the maze moves its walls onto the heap.
+     * @param path the file to map
+     */
+    public static Maze map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Maze file too large to map: " + size + " bytes");
+            }
+            // The mapping stays valid after the channel is closed
+            return decode(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), 0);
+        }
+    }
+
+    /**
+     * Wrap a maze encoded in a buffer without copying its bitmap
+     * @param buffer the buffer holding the encoded maze, e.g. a mapped file
+     * @param offset where the maze's header starts in the buffer
+     */
+    static Maze decode(ByteBuffer buffer, int offset) throws IOException {
+        ByteBuffer data = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        Header header = new Header(data, offset);
+        if (data.limit() - offset < sizeOf(header.rows, header.cols)) {
+            throw new EOFException("Maze file is truncated");
+        }
+        data.position(offset + HEADER_BYTES);
+        return header.toMaze(new BitGrid(header.rows, header.cols, data));
+    }
+
+    /**
+     * Decoded and validated header fields
+     */
+    private static final class Header {
+        final Maze.Algorithm algorithm;
+        final Maze.GoalPolicy goalPolicy;
+        final int rows;
+        final int cols;
+        final long seed;
+        final int startRow;
+        final int startCol;
+        final int endRow;
+        final int endCol;
+
+        Header(ByteBuffer data, int offset) throws IOException {
+            if (data.limit() - offset < HEADER_BYTES) {
+                throw new EOFException("Maze file is truncated");
+            }
+            if (data.getInt(offset) != MAGIC) {
+                throw new IOException("Not a maze file");
+            }
+            short version = data.getShort(offset + 4);
+            if (version != VERSION) {
+                throw new IOException("Unsupported maze file version " + version);
+            }
+
+            int algorithmId = data.get(offset + 6) & 0xFF;
+            int percentile = data.get(offset + 7) & 0xFF;
+            Maze.Algorithm[] algorithms = Maze.Algorithm.values();
+            if (algorithmId >= algorithms.length || percentile > 100) {
+                throw new IOException("Unknown generator " + algorithmId + " or goal percentile " + percentile);
+            }
+            algorithm = algorithms[algorithmId];
+            goalPolicy = Maze.GoalPolicy.percentile(percentile);
+
+            rows = data.getInt(offset + 8);
+            cols = data.getInt(offset + 12);
+            if (rows < 5 || cols < 5 || (long) rows * cols > Integer.MAX_VALUE) {
+                throw new IOException("Invalid maze dimensions " + rows + "x" + cols);
+            }
+            seed = data.getLong(offset + 16);
+            startRow = data.getInt(offset + 24);
+            startCol = data.getInt(offset + 28);
+            endRow = data.getInt(offset + 32);
+            endCol = data.getInt(offset + 36);
+            if (!isInterior(startRow, startCol) || !isInterior(endRow, endCol)) {
+                throw new IOException("Start or goal outside the maze");
+            }
+        }
+
+        private boolean isInterior(int r, int c) {
+            return r > 0 && r < rows - 1 && c > 0 && c < cols - 1;
+        }
+
+        /**
+         * Check the walls against the header and wrap them in a maze
+         */
+        Maze toMaze(BitGrid grid) throws IOException {
+            if (grid.isWall(grid.index(startRow, startCol)) || grid.isWall(grid.index(endRow, endCol))) {
+                throw new IOException("Start or goal is a wall");
+            }
+            // Searches never bounds-check neighbours, so the outer wall must be intact
+            for (int c = 0; c < cols; c++) {
+                if (!grid.isWall(grid.index(0, c)) || !grid.isWall(grid.index(rows - 1, c))) {
+                    throw new IOException("Outer wall is open at column " + c);
+                }
+            }
+            for (int r = 0; r < rows; r++) {
+                if (!grid.isWall(grid.index(r, 0)) || !grid.isWall(grid.index(r, cols - 1))) {
+                    throw new IOException("Outer wall is open at row " + r);
+                }
+            }
+            return new Maze(grid, seed, algorithm, goalPolicy, startRow, startCol, endRow, endCol);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.mazerunner;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Generates candidate mazes on several threads at once and returns the first one
+ * whose metrics fall in a requested band, e.g. "solution length 300-350 and at
+ * least 40 dead ends", so levels of the same difficulty feel consistent.
+ * The game doesn't call this; it is a library entry point for tools that build
+ * level packs or tune difficulty bands offline.
+ */
+public class MazeFinder {
+    private final int threads;
+    private final ExecutorService executor;
+
+    public MazeFinder() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create a maze finder
+     * @param threads number of candidates generated in parallel per search
+     */
+    public MazeFinder(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        }
+        this.threads = threads;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "maze-finder-" + threadCount.incrementAndGet());
+            thread.setDaemon(true); // Will shut down when app closes
+            return thread;
+        });
+    }
+
+    /**
+     * Search for a maze whose metrics match a target
+     * @param rows number of rows of each candidate
+     * @param cols number of columns of each candidate
+     * @param algorithm the generation algorithm for candidates
+     * @param target accepts the metrics of a suitable maze
+     * @param timeout time budget for the whole search
+     * @param unit unit of the timeout
+     * @return a future completed with the first matching maze, or with a TimeoutException
+     *         when the budget runs out, even if a candidate is still being built.
+     *         Cancelling it stops the search once the current candidates are done.
+     */
+    public CompletableFuture<Maze> find(int rows, int cols, Maze.Algorithm algorithm,
+                                        Predicate<MazeMetrics> target, long timeout, TimeUnit unit) {
+        CompletableFuture<Maze> result = new CompletableFuture<>();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        AtomicLong candidates = new AtomicLong();
+
+        // The future times out on its own, so a slow candidate can't hold it past the deadline
+        result.orTimeout(timeout, unit);
+        for (int i = 0; i < threads && !result.isDone(); i++) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        // Each candidate is checked against the future first, so finding a
+                        // match, cancelling or timing out stops every worker
+                        while (!result.isDone()) {
+                            if (System.nanoTime() - deadline >= 0) {
+                                result.completeExceptionally(new TimeoutException(
+                                        "No matching maze in " + candidates.get() + " candidates"));
+                                return;
+                            }
+                            long seed = ThreadLocalRandom.current().nextLong();
+                            Maze maze = new Maze(rows, cols, seed, algorithm, Maze.GoalPolicy.FARTHEST);
+                            candidates.incrementAndGet();
+                            if (target.test(MazeMetrics.analyze(maze))) {
+                                result.complete(maze);
+                            }
+                        }
+                    } catch (RuntimeException e) {
+                        result.completeExceptionally(e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                result.completeExceptionally(new IllegalStateException("Maze finder is shut down", e));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Search for a maze and wait for the result
+     * @return the first matching maze, or null if none was found within the timeout
+     * @throws InterruptedException if interrupted while waiting; the search is cancelled
+     */
+    public Maze findNow(int rows, int cols, Maze.Algorithm algorithm,
+                        Predicate<MazeMetrics> target, long timeout, TimeUnit unit) throws InterruptedException {
+        CompletableFuture<Maze> search = find(rows, cols, algorithm, target, timeout, unit);
+        try {
+            return search.get();
+        } catch (InterruptedException e) {
+            search.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                return null;
+            }
+            throw new IllegalStateException("Maze search failed", e.getCause());
+        }
+    }
+
+    /**
+     * Stop all searches
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,43 @@
+package com.mazerunner;
+
+import java.util.Random;
+
+/**
+ * Strategy for carving a perfect maze (exactly one route between any two rooms)
+ * into a grid that starts out as all walls. Rooms sit on odd rows and columns
+ * inside the outer wall; room (i, j) is cell (2i + 1, 2j + 1), and the cells
+ * between neighbouring rooms are the walls a generator may knock down.
+ */
+interface MazeGenerator {
+
+    /**
+     * Carve every room, plus the walls that join them into a spanning tree
+     * @param grid an all-wall grid to carve into
+     * @param pathCells receives each carved cell as a packed index, in carving order
+     * @param random the maze's random source; all randomness must come from it
+     */
+    void carve(BitGrid grid, CellList pathCells, Random random);
+
+    /**
+     * Number of room rows that fit inside the outer wall
+     */
+    static int roomRows(BitGrid grid) {
+        return (grid.getRows() - 1) / 2;
+    }
+
+    /**
+     * Number of room columns that fit inside the outer wall
+     */
+    static int roomCols(BitGrid grid) {
+        return (grid.getCols() - 1) / 2;
+    }
+
+    /**
+     * Open a cell and record it
+     */
+    static void carveCell(BitGrid grid, CellList pathCells, int row, int col) {
+        int index = grid.index(row, col);
+        grid.clearWall(index);
+        pathCells.add(index);
+    }
+}
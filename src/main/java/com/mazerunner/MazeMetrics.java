@@ -0,0 +1,131 @@
+package com.mazerunner;
+
+/**
+ * Structural difficulty measures of a maze, computed with one breadth-first search
+ * (the maze's distance-to-goal field) plus one linear scan of a snapshot of it.
+ * Only cells connected to the goal are counted, so sealed-off pockets don't skew the numbers.
+ */
+public final class MazeMetrics {
+    private final int solutionLength;
+    private final int openCells;
+    private final int deadEnds;
+    private final int junctions;
+    private final int loops;
+    private final double averageCorridorLength;
+
+    private MazeMetrics(int solutionLength, int openCells, int deadEnds, int junctions,
+                        int loops, double averageCorridorLength) {
+        this.solutionLength = solutionLength;
+        this.openCells = openCells;
+        this.deadEnds = deadEnds;
+        this.junctions = junctions;
+        this.loops = loops;
+        this.averageCorridorLength = averageCorridorLength;
+    }
+
+    /**
+     * Analyze a maze
+     * @param maze the maze to measure
+     * @return its metrics
+     */
+    public static MazeMetrics analyze(Maze maze) {
+        int cols = maze.getCols();
+        int[] distances = maze.goalDistances(); // One snapshot, so the scan takes no locks
+        int solutionLength = distances[maze.getStartRow() * cols + maze.getStartCol()];
+
+        int openCells = 0;
+        int edges = 0;
+        int deadEnds = 0;
+        int junctions = 0;
+        int segmentEnds = 0; // Sum of degrees of cells that aren't plain corridor cells
+
+        for (int cell = 0; cell < distances.length; cell++) {
+            if (distances[cell] < 0) {
+                continue; // Wall or not connected to the goal
+            }
+            openCells++;
+
+            // Connected cells are inside the outer wall, so every neighbour index is valid,
+            // and an open neighbour of a connected cell is connected too
+            int degree = 0;
+            if (distances[cell - cols] >= 0) degree++;
+            if (distances[cell - 1] >= 0) degree++;
+            // Count each edge once, from its upper or left cell
+            if (distances[cell + cols] >= 0) {
+                degree++;
+                edges++;
+            }
+            if (distances[cell + 1] >= 0) {
+                degree++;
+                edges++;
+            }
+
+            if (degree == 1) {
+                deadEnds++;
+            } else if (degree >= 3) {
+                junctions++;
+            }
+            if (degree != 2) {
+                segmentEnds += degree;
+            }
+        }
+
+        // A connected graph with V cells and E edges has E - V + 1 independent cycles.
+        // Corridors run between cells of degree other than 2, so there are
+        // segmentEnds / 2 of them, covering all E edges between them.
+        int loops = openCells == 0 ? 0 : edges - openCells + 1;
+        int corridors = segmentEnds / 2;
+        double averageCorridorLength = corridors == 0 ? edges : (double) edges / corridors;
+
+        return new MazeMetrics(solutionLength, openCells, deadEnds, junctions, loops, averageCorridorLength);
+    }
+
+    /**
+     * Get the number of moves on a shortest path from start to goal
+     */
+    public int getSolutionLength() {
+        return solutionLength;
+    }
+
+    /**
+     * Get the number of open cells connected to the goal
+     */
+    public int getOpenCells() {
+        return openCells;
+    }
+
+    /**
+     * Get the number of open cells with exactly one open neighbour
+     */
+    public int getDeadEnds() {
+        return deadEnds;
+    }
+
+    /**
+     * Get the number of open cells with three or more open neighbours
+     */
+    public int getJunctions() {
+        return junctions;
+    }
+
+    /**
+     * Get the number of independent cycles, i.e. how many walls could be closed
+     * without disconnecting anything. A 2x2 open block counts as one.
+     */
+    public int getLoops() {
+        return loops;
+    }
+
+    /**
+     * Get the average number of moves along a corridor between junctions or dead ends
+     */
+    public double getAverageCorridorLength() {
+        return averageCorridorLength;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("solution=%d open=%d deadEnds=%d junctions=%d loops=%d avgCorridor=%.2f",
+                solutionLength, openCells, deadEnds, junctions, loops, averageCorridorLength);
+    }
+}
@@ -0,0 +1,161 @@
+package com.mazerunner;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a bounded number of ready-made mazes per difficulty, generated on
+ * background threads, so starting a level doesn't block the UI thread.
+ */
+public class MazePool {
+    private static final int DEFAULT_DEPTH = 2;
+    private static final int DEFAULT_THREADS = 1;
+
+    private final int depth;
+    private final ExecutorService executor;
+    private final Map<Maze.Difficulty, Slot> slots = new EnumMap<>(Maze.Difficulty.class);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private volatile boolean shutdown = false;
+
+    /**
+     * Ready mazes for one difficulty plus the number of generations in flight
+     */
+    private static class Slot {
+        final ArrayBlockingQueue<Maze> ready;
+        final AtomicInteger pending = new AtomicInteger();
+
+        Slot(int depth) {
+            ready = new ArrayBlockingQueue<>(Math.max(1, depth));
+        }
+    }
+
+    public MazePool() {
+        this(DEFAULT_DEPTH, DEFAULT_THREADS);
+    }
+
+    /**
+     * Create a maze pool
+     * @param depth number of ready mazes to keep per difficulty (0 disables pooling)
+     * @param threads number of background generator threads
+     */
+    public MazePool(int depth, int threads) {
+        if (depth < 0 || threads < 1) {
+            throw new IllegalArgumentException("Invalid pool depth " + depth + " or thread count " + threads);
+        }
+        this.depth = depth;
+        for (Maze.Difficulty difficulty : Maze.Difficulty.values()) {
+            slots.put(difficulty, new Slot(depth));
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "maze-pool-" + threadCount.incrementAndGet());
+            thread.setDaemon(true); // Will shut down when app closes
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * Take a ready maze, generating one on the calling thread if none is available.
+     * Either way a background refill is scheduled.
+     * @param difficulty the difficulty of the maze to take
+     * @return a freshly generated maze that no one else holds
+     */
+    public Maze take(Maze.Difficulty difficulty) {
+        Slot slot = slots.get(difficulty);
+        Maze maze = slot.ready.poll();
+        if (maze != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            maze = new Maze(difficulty);
+        }
+        refill(difficulty);
+        return maze;
+    }
+
+    /**
+     * Start generating mazes for a difficulty ahead of time, e.g. when it is selected in the menu
+     * @param difficulty the difficulty to fill up to the pool depth
+     */
+    public void prefill(Maze.Difficulty difficulty) {
+        refill(difficulty);
+    }
+
+    private void refill(Maze.Difficulty difficulty) {
+        Slot slot = slots.get(difficulty);
+        while (!shutdown) {
+            int pending = slot.pending.get();
+            if (slot.ready.size() + pending >= depth) {
+                return;
+            }
+            if (!slot.pending.compareAndSet(pending, pending + 1)) {
+                continue; // Another thread changed the count, re-check
+            }
+            try {
+                executor.execute(() -> {
+                    try {
+                        slot.ready.offer(new Maze(difficulty));
+                    } catch (RuntimeException e) {
+                        System.err.println("Maze pre-generation failed: " + e.getMessage());
+                    } finally {
+                        slot.pending.decrementAndGet();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                slot.pending.decrementAndGet();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Get the number of mazes currently ready for a difficulty
+     */
+    public int getReadyCount(Maze.Difficulty difficulty) {
+        return slots.get(difficulty).ready.size();
+    }
+
+    /**
+     * Get the number of takes served from the pool
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Get the number of takes that had to generate synchronously
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Get the fraction of takes served from the pool
+     * @return the hit rate between 0 and 1, or 0 if nothing was taken yet
+     */
+    public double getHitRate() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    /**
+     * Stop background generation and drop any ready mazes
+     */
+    public void shutdown() {
+        shutdown = true;
+        executor.shutdownNow();
+        for (Slot slot : slots.values()) {
+            slot.ready.clear();
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.mazerunner;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+/**
+ * Draws a maze onto one Canvas in a single pass, instead of adding a scene-graph
+ * node per cell. The scene stays a handful of nodes however big the maze is;
+ * the player and overlays sit on top of the canvas as ordinary nodes.
+ * The canvas is the size of the viewport and only the cells in view are drawn,
+ * so the cost of a frame depends on the window, not on the maze. While the view
+ * stays still, only cells that changed are drawn again.
+ */
+final class MazeRenderer {
+    // Cell styles, matching the original per-cell Rectangle nodes
+    static final Color WALL_FILL = Color.rgb(40, 40, 90); // Darker blue
+    static final Color WALL_STROKE = Color.BLACK;
+    static final Color WALL_SHADOW = Color.BLACK; // Subtle 3D effect
+    static final Color PATH_FILL = Color.rgb(240, 240, 255); // Light blue-white
+    static final Color PATH_STROKE = Color.LIGHTGRAY;
+    static final Color START_FILL = Color.rgb(200, 255, 200); // Light green
+    static final Color START_STROKE = Color.GREEN;
+    static final Color END_FILL = Color.GOLD;
+    static final Color END_STROKE = Color.ORANGE;
+    static final Color BREADCRUMB_FILL = Color.rgb(100, 150, 255, 0.5);
+    static final double ARC = 6; // Rounded corners on every cell
+    private static final int MARGIN = 1; // Extra cells drawn around the view, for partly visible cells and shadows
+    private static final int MIN_ATLAS_EXPONENT = -4; // Atlas scales from 1/16 ...
+    private static final int MAX_ATLAS_EXPONENT = 4; // ... to 16, well past the camera's zoom range
+
+    private final Canvas canvas = new Canvas();
+    private final TileAtlas[] atlases = new TileAtlas[MAX_ATLAS_EXPONENT - MIN_ATLAS_EXPONENT + 1]; // By scale exponent
+    private TileAtlas atlas; // The atlas for atlasZoom, so a steady zoom skips the lookup
+    private double atlasZoom = Double.NaN;
+    private final int[] breadcrumbs; // Ring of trail cells (row * cols + col), oldest at breadcrumbStart
+    private int breadcrumbStart;
+    private int breadcrumbCount;
+    private final DirtyRegion dirty = new DirtyRegion(); // Cells changed since the last frame
+    private final double tileSize;
+    private MazeView maze;
+
+    // The view the canvas currently shows, or NaN before the first full repaint
+    private double paintedX = Double.NaN;
+    private double paintedY = Double.NaN;
+    private double paintedZoom = Double.NaN;
+
+    /**
+     * Create a renderer
+     * @param tileSize cell size in world units
+     * @param trailLength number of breadcrumbs kept before the oldest is dropped
+     */
+    MazeRenderer(double tileSize, int trailLength) {
+        this.tileSize = tileSize;
+        this.breadcrumbs = new int[trailLength];
+    }
+
+    Canvas getCanvas() {
+        return canvas;
+    }
+
+    /**
+     * Show a maze. Changes made to a Maze later are redrawn cell by cell; a board
+     * that grows or changes some other way needs repaintAll.
+     */
+    void setMaze(MazeView maze) {
+        if (this.maze instanceof Maze) {
+            ((Maze) this.maze).removeChangeListener(dirty);
+        }
+        this.maze = maze;
+        if (maze instanceof Maze) {
+            ((Maze) maze).addChangeListener(dirty);
+        }
+        breadcrumbCount = 0;
+        repaintAll();
+    }
+
+    /**
+     * Resize the canvas to the viewport
+     */
+    void setViewportSize(double width, double height) {
+        canvas.setWidth(width);
+        canvas.setHeight(height);
+        repaintAll();
+    }
+
+    /**
+     * Leave a breadcrumb on a cell, dropping the oldest one once the trail is full
+     */
+    void addBreadcrumb(int row, int col) {
+        if (breadcrumbs.length == 0) {
+            return;
+        }
+        if (breadcrumbCount == breadcrumbs.length) {
+            markCellDirty(breadcrumbs[breadcrumbStart]);
+            breadcrumbStart = (breadcrumbStart + 1) % breadcrumbs.length;
+            breadcrumbCount--;
+        }
+        int cell = row * maze.getNumCols() + col;
+        breadcrumbs[(breadcrumbStart + breadcrumbCount) % breadcrumbs.length] = cell;
+        breadcrumbCount++;
+        markCellDirty(cell);
+    }
+
+    void clearBreadcrumbs() {
+        for (int i = 0; i < breadcrumbCount; i++) {
+            markCellDirty(breadcrumbs[(breadcrumbStart + i) % breadcrumbs.length]);
+        }
+        breadcrumbCount = 0;
+    }
+
+    private void markCellDirty(int cell) {
+        int cols = maze.getNumCols();
+        dirty.regionChanged(cell / cols, cell % cols, cell / cols, cell % cols);
+    }
+
+    /**
+     * Draw everything again on the next update
+     */
+    void repaintAll() {
+        paintedZoom = Double.NaN;
+    }
+
+    /**
+     * Bring the canvas up to date, once per frame. A moved view is redrawn in full;
+     * otherwise only the cells changed since the last update are, in one batch.
+     * @param viewX world x at the left edge of the canvas
+     * @param viewY world y at the top edge of the canvas
+     * @param zoom screen pixels per world pixel
+     */
+    void update(double viewX, double viewY, double zoom) {
+        if (maze == null) {
+            return;
+        }
+        if (viewX != paintedX || viewY != paintedY || zoom != paintedZoom) {
+            dirty.drainTo((top, left, bottom, right) -> { }); // The full repaint covers it
+            paintedX = viewX;
+            paintedY = viewY;
+            paintedZoom = zoom;
+            GraphicsContext gc = canvas.getGraphicsContext2D();
+            gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+            paintCells(gc, 0, 0, maze.getNumRows() - 1, maze.getNumCols() - 1);
+        } else {
+            dirty.drainTo(this::repaintRegion);
+        }
+    }
+
+    /**
+     * Redraw a block of cells in place, leaving the rest of the canvas alone
+     */
+    private void repaintRegion(int top, int left, int bottom, int right) {
+        // Clip to the block and the neighbours its shadows reach, snapped to whole pixels
+        double x0 = Math.floor(((left - MARGIN) * tileSize - paintedX) * paintedZoom);
+        double y0 = Math.floor(((top - MARGIN) * tileSize - paintedY) * paintedZoom);
+        double x1 = Math.ceil(((right + 1 + MARGIN) * tileSize - paintedX) * paintedZoom);
+        double y1 = Math.ceil(((bottom + 1 + MARGIN) * tileSize - paintedY) * paintedZoom);
+
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.save();
+        gc.beginPath();
+        gc.rect(x0, y0, x1 - x0, y1 - y0);
+        gc.clip();
+        gc.clearRect(x0, y0, x1 - x0, y1 - y0);
+        // Any cell whose sprite overlaps the clip is drawn again
+        paintCells(gc, top - 2 * MARGIN, left - 2 * MARGIN, bottom + 2 * MARGIN, right + 2 * MARGIN);
+        gc.restore();
+    }
+
+    /**
+     * Draw the cells of a block that are in view, with their breadcrumbs
+     */
+    private void paintCells(GraphicsContext gc, int top, int left, int bottom, int right) {
+        // Only the tile window under the viewport, plus a margin
+        int firstRow = Math.max(top, Math.max(0, (int) Math.floor(paintedY / tileSize) - MARGIN));
+        int firstCol = Math.max(left, Math.max(0, (int) Math.floor(paintedX / tileSize) - MARGIN));
+        int lastRow = Math.min(bottom, Math.min(maze.getNumRows() - 1,
+                (int) ((paintedY + canvas.getHeight() / paintedZoom) / tileSize) + MARGIN));
+        int lastCol = Math.min(right, Math.min(maze.getNumCols() - 1,
+                (int) ((paintedX + canvas.getWidth() / paintedZoom) / tileSize) + MARGIN));
+
+        TileAtlas atlas = atlasFor(paintedZoom);
+        int cols = maze.getNumCols();
+        gc.save();
+        gc.scale(paintedZoom, paintedZoom);
+        gc.translate(-paintedX, -paintedY);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                atlas.draw(gc, maze.getCellType(row, col), col * tileSize, row * tileSize);
+            }
+        }
+        // Oldest first; a cell visited twice gets two overlapping crumbs, as the trail nodes did
+        for (int i = 0; i < breadcrumbCount; i++) {
+            int cell = breadcrumbs[(breadcrumbStart + i) % breadcrumbs.length];
+            int row = cell / cols;
+            int col = cell % cols;
+            if (row >= firstRow && row <= lastRow && col >= firstCol && col <= lastCol) {
+                atlas.drawBreadcrumb(gc, col * tileSize, row * tileSize);
+            }
+        }
+        gc.restore();
+    }
+
+    /**
+     * Get the atlas to draw at a zoom, building it the first time. Atlases are made at
+     * power-of-two scales and shrunk while drawing, so an easing zoom reuses one atlas.
+     */
+    private TileAtlas atlasFor(double zoom) {
+        if (zoom == atlasZoom) {
+            return atlas;
+        }
+        // Round up to a power of two, then clamp to the scales kept
+        int exponent = Math.getExponent(zoom);
+        if (zoom != Math.scalb(1.0, exponent)) {
+            exponent++;
+        }
+        exponent = Math.max(MIN_ATLAS_EXPONENT, Math.min(MAX_ATLAS_EXPONENT, exponent));
+        int slot = exponent - MIN_ATLAS_EXPONENT;
+        if (atlases[slot] == null) {
+            atlases[slot] = new TileAtlas(tileSize, Math.scalb(1.0, exponent));
+        }
+        atlas = atlases[slot];
+        atlasZoom = zoom;
+        return atlas;
+    }
+}
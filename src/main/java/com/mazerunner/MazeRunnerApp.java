@@ -20,6 +20,8 @@ import javafx.scene.shape.Circle;
 import javafx.scene.shape.Rectangle;
 import javafx.scene.text.Font;
 import javafx.scene.text.Text;
+import javafx.scene.transform.Scale;
+import javafx.scene.transform.Translate;
 import javafx.stage.Stage;
 import javafx.util.Duration;
 // import javafx.scene.image.Image;
@@ -30,7 +32,10 @@ import javafx.util.Duration;
 
 import java.util.Optional;
 import java.io.File;
+import java.io.IOException;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.ArrayList;
 import java.util.Random;
 
@@ -40,11 +45,38 @@ public class MazeRunnerApp extends Application {
     private static final double MOVEMENT_DURATION = 200; // milliseconds for movement animation
     private static final double WALL_COLLISION_SHAKE_DURATION = 100; // For wall collision animation
     private static final int BREADCRUMB_MAX_COUNT = 20; // Maximum number of movement breadcrumbs to show
+    private static final double MAX_VIEWPORT_WIDTH = 900; // Larger mazes scroll with the player
+    private static final double MAX_VIEWPORT_HEIGHT = 600;
+    private static final double ZOOM_STEP = 1.25; // Zoom factor per key press or wheel notch
+    private static final int DUNGEON_FLOORS = 3;
     
-    private Maze maze;
+    /**
+     * How the board is built: fixed levels, one shaft generated as the player descends,
+     * or floors stacked into a dungeon and linked by stairs
+     */
+    private enum GameMode {
+        CLASSIC, ENDLESS, DUNGEON
+    }
+
+    private Maze maze; // The level, or dungeon floor, being played; null in endless mode
+    private MazeView board; // What the player walks on: the maze, or the endless shaft
+    private EndlessMaze endlessMaze; // Only in endless mode
+    private int deepestRow; // Endless mode progress
+    private MultiFloorMaze dungeon; // Only in dungeon mode
+    private int currentFloor; // Floor of the dungeon the player is on
+    private final List<Label> stairMarkers = new ArrayList<>(); // Over the stairs of the current floor
+    private GameMode gameMode = GameMode.CLASSIC;
     private Maze.Difficulty currentDifficulty = Maze.Difficulty.MEDIUM;
+    private MazePool mazePool; // Pre-generates mazes off the UI thread
+    private MazeRenderer mazeRenderer; // Draws the maze cells onto a canvas
+    private final Camera camera = new Camera(); // Which part of the maze is in view
+    private final AnimationClock animationClock = new AnimationClock(); // Drives the camera and idle pulses each frame
+    private final Scale worldScale = new Scale();
+    private final Translate worldTranslate = new Translate();
+    private final Map<Maze.Difficulty, LevelPack> levelPacks = new EnumMap<>(Maze.Difficulty.class); // Curated levels, where a pack file exists
     private Player player;
-    private Pane gamePane; // Pane to draw the maze and player
+    private Pane gamePane; // Viewport onto the maze, sized to the window
+    private Pane worldPane; // Goal, player and trail, moved and scaled with the camera
     private Label timerLabel;
     private Label difficultyLabel;
     private GameTimer gameTimer;
@@ -65,12 +97,12 @@ public class MazeRunnerApp extends Application {
 
     // --- GUI Elements ---
     private Circle playerMarker;
+    private Rectangle goalMarker;
     // private ImageView playerImageView; // Alternative for image-based player
     // MediaPlayer backgroundMusicPlayer;
     // MediaPlayer sfxPlayer;
 
     // Add animation-related fields
-    private List<Circle> breadcrumbs = new ArrayList<>(); // Track player's path with breadcrumbs
     private Timeline pathPulseTimeline; // Timeline for pulsing path animation
 
     @Override
@@ -80,6 +112,11 @@ public class MazeRunnerApp extends Application {
         // Initialize embedded server
         embeddedServer = new EmbeddedServer();
         
+        // Start generating mazes for the default difficulty in the background
+        mazePool = new MazePool();
+        mazePool.prefill(currentDifficulty);
+        openLevelPacks();
+        
         // Initialize network client
         networkClient = new NetworkClient("127.0.0.1", 12345); // Server running locally on port 12345
 
@@ -91,7 +128,7 @@ public class MazeRunnerApp extends Application {
 
         primaryStage.setTitle("JavaFX Maze Runner");
         primaryStage.setScene(menuScene);
-        primaryStage.setResizable(false);
+        primaryStage.setResizable(true); // The game view scrolls, so any window size works
         primaryStage.show();
         
         // Setup close handler to stop the server when the game exits
@@ -144,10 +181,31 @@ public class MazeRunnerApp extends Application {
                 case "Hard": currentDifficulty = Maze.Difficulty.HARD; break;
                 case "Extreme": currentDifficulty = Maze.Difficulty.EXTREME; break;
             }
+            mazePool.prefill(currentDifficulty);
         });
         
         difficultyBox.getChildren().addAll(diffText, difficultySelector);
         
+        // Game mode selection
+        HBox modeBox = new HBox(10);
+        modeBox.setAlignment(Pos.CENTER);
+        
+        Label modeText = new Label("Game Mode:");
+        modeText.setFont(Font.font("Arial", 16));
+        
+        ComboBox<String> modeSelector = new ComboBox<>();
+        modeSelector.getItems().addAll("Classic", "Endless", "Dungeon");
+        modeSelector.setValue("Classic");
+        modeSelector.setOnAction(e -> {
+            switch (modeSelector.getValue()) {
+                case "Classic": gameMode = GameMode.CLASSIC; break;
+                case "Endless": gameMode = GameMode.ENDLESS; break;
+                case "Dungeon": gameMode = GameMode.DUNGEON; break;
+            }
+        });
+        
+        modeBox.getChildren().addAll(modeText, modeSelector);
+        
         // Buttons
         Button startButton = new Button("Start Game");
         startButton.setPrefSize(150, 40);
@@ -164,7 +222,10 @@ public class MazeRunnerApp extends Application {
         // Instructions
         Text instructionsText = new Text(
             "Use the ARROW KEYS or WASD to navigate through the maze.\n" +
+            "Press H for a hint.\n" +
             "Reach the gold square to win.\n" +
+            "In Endless mode, get as deep as you can.\n" +
+            "In Dungeon mode, press E on a staircase to change floors.\n" +
             "Try to finish in the shortest time with the fewest moves!"
         );
         instructionsText.setFont(Font.font("Arial", 14));
@@ -173,6 +234,7 @@ public class MazeRunnerApp extends Application {
             titleText,
             serverStatusBox,
             difficultyBox,
+            modeBox,
             startButton,
             highScoresButton,
             exitButton,
@@ -227,11 +289,62 @@ public class MazeRunnerApp extends Application {
         alert.show();
     }
     
+    /**
+     * Open the curated level pack of each difficulty that has one, e.g. levels-medium.mzpk.
+     * Only pack headers are read here, so startup doesn't slow down as packs grow.
+     */
+    private void openLevelPacks() {
+        for (Maze.Difficulty difficulty : Maze.Difficulty.values()) {
+            File file = new File("levels-" + difficulty.name().toLowerCase() + ".mzpk");
+            if (!file.exists()) {
+                continue;
+            }
+            try {
+                levelPacks.put(difficulty, LevelPack.open(file.toPath()));
+            } catch (IOException e) {
+                System.err.println("Error opening level pack " + file + ": " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Get the maze for a level: the curated one if the difficulty's pack has it,
+     * otherwise a pre-generated one
+     * @param level the level number, from 1
+     */
+    private Maze mazeForLevel(int level) {
+        LevelPack pack = levelPacks.get(currentDifficulty);
+        if (pack != null && level <= pack.size()) {
+            try {
+                return pack.get(level - 1);
+            } catch (IOException e) {
+                System.err.println("Error loading level " + level + ": " + e.getMessage());
+            }
+        }
+        return mazePool.take(currentDifficulty);
+    }
+    
     private void startNewGame() {
-        // Initialize new maze with selected difficulty
-        maze = new Maze(currentDifficulty);
-        player = new Player(maze.getStartRow(), maze.getStartCol());
+        // Take the first level for the selected difficulty
         currentLevel = 1;
+        dungeon = null;
+        if (gameMode == GameMode.ENDLESS) {
+            // The shaft is as wide as a maze of the selected difficulty
+            endlessMaze = new EndlessMaze(currentDifficulty.cols, new Random().nextLong());
+            maze = null;
+            board = endlessMaze;
+            player = new Player(endlessMaze.getStartRow(), endlessMaze.getStartCol());
+            deepestRow = player.getRow();
+        } else {
+            endlessMaze = null;
+            if (gameMode == GameMode.DUNGEON) {
+                enterDungeon();
+            } else {
+                maze = mazeForLevel(currentLevel);
+            }
+            board = maze;
+            player = new Player(maze.getStartRow(), maze.getStartCol());
+        }
         movesCount = 0;
         
         rootLayout = createGameLayout();
@@ -248,6 +361,15 @@ public class MazeRunnerApp extends Application {
         startGame(); // Start timer etc.
     }
 
+    /**
+     * Generate a new dungeon with floors the size of the selected difficulty and start on its ground floor
+     */
+    private void enterDungeon() {
+        dungeon = new MultiFloorMaze(DUNGEON_FLOORS, currentDifficulty.rows, currentDifficulty.cols, new Random().nextLong());
+        currentFloor = 0;
+        maze = dungeon.getFloor(currentFloor);
+    }
+
     private BorderPane createGameLayout() {
         BorderPane layout = new BorderPane();
         layout.setStyle("-fx-background-color: #DDDDDD;"); // Use Color class via CSS
@@ -273,7 +395,7 @@ public class MazeRunnerApp extends Application {
         timerLabel.setFont(Font.font("Arial", 16));
         timerLabel.setTextFill(Color.BLACK);
         
-        difficultyLabel = new Label("Level " + currentLevel + " - " + currentDifficulty.name());
+        difficultyLabel = new Label(progressText());
         difficultyLabel.setFont(Font.font("Arial", 16));
         difficultyLabel.setTextFill(Color.DARKGREEN);
         
@@ -316,86 +438,182 @@ public class MazeRunnerApp extends Application {
     private Pane createGamePane() {
         Pane pane = new Pane();
         pane.setPrefSize(
-            maze.getNumCols() * TILE_SIZE,
-            maze.getNumRows() * TILE_SIZE
+            Math.min(board.getNumCols() * TILE_SIZE, MAX_VIEWPORT_WIDTH),
+            Math.min(board.getNumRows() * TILE_SIZE, MAX_VIEWPORT_HEIGHT)
         );
+        pane.setMinSize(0, 0); // Don't let the canvas stop the window shrinking
+        
+        // Hide whatever part of the world lies outside the viewport
+        Rectangle clip = new Rectangle();
+        clip.widthProperty().bind(pane.widthProperty());
+        clip.heightProperty().bind(pane.heightProperty());
+        pane.setClip(clip);
+        
+        // Mouse wheel zooms the view
+        pane.setOnScroll(e -> zoomBy(e.getDeltaY() > 0 ? ZOOM_STEP : 1 / ZOOM_STEP));
         return pane;
     }
 
     private void drawMaze() {
         gamePane.getChildren().clear(); // Remove any existing elements
         
-        // Draw grid of rectangles based on maze.grid values
-        for (int row = 0; row < maze.getNumRows(); row++) {
-            for (int col = 0; col < maze.getNumCols(); col++) {
-                Rectangle rect = new Rectangle(
-                    col * TILE_SIZE,
-                    row * TILE_SIZE,
-                    TILE_SIZE,
-                    TILE_SIZE
-                );
-                
-                // Add rounded corners to all cells for a more polished look
-                rect.setArcHeight(6);
-                rect.setArcWidth(6);
-                
-                // Enhanced color scheme for better visuals
-                switch (maze.getCellType(row, col)) {
-                    case WALL:
-                        rect.setFill(Color.rgb(40, 40, 90)); // Darker blue
-                        rect.setStroke(Color.BLACK);
-                        rect.setStrokeWidth(1.5);
-                        // Add subtle 3D effect
-                        rect.setEffect(new javafx.scene.effect.DropShadow(2, 1, 1, Color.BLACK));
-                        break;
-                    case PATH:
-                        rect.setFill(Color.rgb(240, 240, 255)); // Light blue-white
-                        rect.setStroke(Color.LIGHTGRAY);
-                        rect.setStrokeWidth(0.5);
-                        break;
-                    case START:
-                        rect.setFill(Color.rgb(200, 255, 200)); // Light green
-                        rect.setStroke(Color.GREEN);
-                        rect.setStrokeWidth(1.5);
-                        break;
-                    case END:
-                        rect.setFill(Color.GOLD);
-                        rect.setStroke(Color.ORANGE);
-                        rect.setStrokeWidth(2);
-                        
-                        // Add pulsing animation to goal
-                        Timeline pulse = new Timeline(
-                            new KeyFrame(Duration.ZERO, e -> {
-                                rect.setScaleX(1.0);
-                                rect.setScaleY(1.0);
-                            }),
-                            new KeyFrame(Duration.seconds(0.5), e -> {
-                                rect.setScaleX(1.1);
-                                rect.setScaleY(1.1);
-                            }),
-                            new KeyFrame(Duration.seconds(1.0), e -> {
-                                rect.setScaleX(1.0);
-                                rect.setScaleY(1.0);
-                            })
-                        );
-                        pulse.setCycleCount(Timeline.INDEFINITE);
-                        pulse.play();
-                        
-                        // Add a glow effect to the goal
-                        javafx.scene.effect.Glow glow = new javafx.scene.effect.Glow(0.5);
-                        rect.setEffect(glow);
-                        break;
+        // All cells are drawn onto one canvas; only the goal, player and overlays are nodes
+        if (mazeRenderer == null) {
+            mazeRenderer = new MazeRenderer(TILE_SIZE, BREADCRUMB_MAX_COUNT);
+            // The camera runs whenever the canvas is on screen, whichever pane holds it
+            animationClock.addWhileShowing(mazeRenderer.getCanvas(), (time, delta) -> updateCamera(delta));
+        }
+        worldPane = new Pane();
+        worldPane.getTransforms().setAll(worldScale, worldTranslate);
+        goalMarker = createGoalMarker();
+        worldPane.getChildren().add(goalMarker);
+        gamePane.getChildren().addAll(mazeRenderer.getCanvas(), worldPane);
+        showMaze();
+    }
+
+    /**
+     * Point the existing canvas and goal at the current board, without rebuilding any nodes
+     */
+    private void showMaze() {
+        mazeRenderer.setMaze(board); // Repainted in full on the next frame, with no trail
+        // The endless shaft has no goal, and a dungeon's is on its top floor
+        goalMarker.setVisible(maze != null && (dungeon == null || currentFloor == dungeon.getFloorCount() - 1));
+        if (maze != null) {
+            goalMarker.setX(maze.getEndCol() * TILE_SIZE);
+            goalMarker.setY(maze.getEndRow() * TILE_SIZE);
+        }
+        showStairs();
+        
+        // Start the view on the player rather than scrolling in from the last position
+        camera.setWorldSize(board.getNumCols() * TILE_SIZE, board.getNumRows() * TILE_SIZE);
+        camera.follow(player.getCol() * TILE_SIZE + TILE_SIZE / 2, player.getRow() * TILE_SIZE + TILE_SIZE / 2);
+        camera.snap();
+    }
+
+    /**
+     * Mark the staircases of the current dungeon floor, pointing the way each one goes
+     */
+    private void showStairs() {
+        worldPane.getChildren().removeAll(stairMarkers);
+        stairMarkers.clear();
+        if (dungeon == null) {
+            return;
+        }
+        int floorCells = dungeon.getRows() * dungeon.getCols();
+        for (int row = 0; row < dungeon.getRows(); row++) {
+            for (int col = 0; col < dungeon.getCols(); col++) {
+                int destination = dungeon.getStairDestination(currentFloor, row, col);
+                if (destination < 0) {
+                    continue;
                 }
-                
-                gamePane.getChildren().add(rect);
+                Label stair = new Label(destination / floorCells > currentFloor ? "\u25B2" : "\u25BC");
+                stair.setFont(Font.font("Arial", javafx.scene.text.FontWeight.BOLD, TILE_SIZE * 0.6));
+                stair.setTextFill(Color.rgb(140, 70, 20));
+                stair.setAlignment(Pos.CENTER);
+                stair.setPrefSize(TILE_SIZE, TILE_SIZE);
+                stair.setLayoutX(col * TILE_SIZE);
+                stair.setLayoutY(row * TILE_SIZE);
+                stair.setMouseTransparent(true);
+                stairMarkers.add(stair);
             }
         }
+        // Above the goal, below the player
+        worldPane.getChildren().addAll(worldPane.getChildren().indexOf(goalMarker) + 1, stairMarkers);
     }
 
-    private void drawPlayer() {
-        // Clear any existing breadcrumbs
-        breadcrumbs.clear();
+    /**
+     * Climb or descend the staircase the player is standing on. Like a step, it counts as one move.
+     */
+    private void takeStairs() {
+        int destination = dungeon == null ? -1
+                : dungeon.getStairDestination(currentFloor, player.getRow(), player.getCol());
+        if (destination < 0) {
+            showErrorLabel("No stairs here");
+            return;
+        }
+        int floorCells = dungeon.getRows() * dungeon.getCols();
+        int cell = destination % floorCells;
+        currentFloor = destination / floorCells;
+        maze = dungeon.getFloor(currentFloor);
+        board = maze;
+        player.setPosition(cell / dungeon.getCols(), cell % dungeon.getCols());
+        movesCount++;
+        movesLabel.setText("Moves: " + movesCount);
+        difficultyLabel.setText(progressText());
+        showMaze();
+        placePlayerMarker();
+    }
+
+    /**
+     * Ease the camera towards the player and bring the canvas up to date, once per frame
+     */
+    private void updateCamera(double seconds) {
+        if (mazeRenderer == null || playerMarker == null) {
+            return;
+        }
+        
+        // The canvas tracks the viewport, which follows the window size
+        double width = gamePane.getWidth();
+        double height = gamePane.getHeight();
+        if (width != camera.getViewportWidth() || height != camera.getViewportHeight()) {
+            camera.setViewportSize(width, height);
+            mazeRenderer.setViewportSize(width, height);
+        }
+        
+        // An endless board grows as the player goes down
+        camera.setWorldSize(board.getNumCols() * TILE_SIZE, board.getNumRows() * TILE_SIZE);
+        
+        // Follow the marker itself, so the view glides along with each move
+        camera.follow(
+            playerMarker.getCenterX() + playerMarker.getTranslateX(),
+            playerMarker.getCenterY() + playerMarker.getTranslateY()
+        );
+        camera.update(seconds);
+        
+        // A moved view is redrawn in full, otherwise only the cells changed since the last frame
+        double zoom = camera.getZoom();
+        mazeRenderer.update(camera.getViewX(), camera.getViewY(), zoom);
+        if (worldScale.getX() != zoom || worldTranslate.getX() != -camera.getViewX()
+                || worldTranslate.getY() != -camera.getViewY()) {
+            worldScale.setX(zoom);
+            worldScale.setY(zoom);
+            worldTranslate.setX(-camera.getViewX());
+            worldTranslate.setY(-camera.getViewY());
+        }
+    }
+
+    /**
+     * Zoom the view in (factor above 1) or out
+     */
+    private void zoomBy(double factor) {
+        camera.zoomTo(camera.getTargetZoom() * factor);
+    }
+
+    /**
+     * Create the pulsing, glowing goal tile drawn over the canvas
+     */
+    private Rectangle createGoalMarker() {
+        Rectangle rect = new Rectangle(TILE_SIZE, TILE_SIZE); // Placed on the goal by showMaze
+        rect.setArcHeight(MazeRenderer.ARC);
+        rect.setArcWidth(MazeRenderer.ARC);
+        rect.setFill(MazeRenderer.END_FILL);
+        rect.setStroke(MazeRenderer.END_STROKE);
+        rect.setStrokeWidth(2);
+        
+        // Add pulsing animation to goal, for as long as it's on screen
+        animationClock.addWhileShowing(rect, (time, delta) -> {
+            double scale = 1.0 + 0.1 * pulse(time, 1.0);
+            rect.setScaleX(scale);
+            rect.setScaleY(scale);
+        });
         
+        // Add a glow effect to the goal
+        javafx.scene.effect.Glow glow = new javafx.scene.effect.Glow(0.5);
+        rect.setEffect(glow);
+        return rect;
+    }
+
+    private void drawPlayer() {
         // Create player circle with gradient fill for more depth
         javafx.scene.paint.RadialGradient playerGradient = new javafx.scene.paint.RadialGradient(
             0, 0, 0.3, 0.3, 0.7, true, javafx.scene.paint.CycleMethod.NO_CYCLE,
@@ -424,15 +642,27 @@ public class MazeRunnerApp extends Application {
         playerMarker.setEffect(shadow);
         
         // Add slight pulsing animation to player marker when idle
-        Timeline playerPulse = new Timeline(
-            new KeyFrame(Duration.ZERO, e -> playerMarker.setRadius(TILE_SIZE / 3)),
-            new KeyFrame(Duration.seconds(1), e -> playerMarker.setRadius(TILE_SIZE / 3 * 0.9)),
-            new KeyFrame(Duration.seconds(2), e -> playerMarker.setRadius(TILE_SIZE / 3))
-        );
-        playerPulse.setCycleCount(Timeline.INDEFINITE);
-        playerPulse.play();
+        Circle marker = playerMarker;
+        animationClock.addWhileShowing(marker, (time, delta) -> marker.setRadius(TILE_SIZE / 3 * (1.0 - 0.1 * pulse(time, 2.0))));
         
-        gamePane.getChildren().add(playerMarker);
+        worldPane.getChildren().add(playerMarker);
+    }
+
+    /**
+     * Get the phase of a repeating pulse: 0 at the start of each period, easing up to 1 halfway through and back
+     */
+    private static double pulse(double time, double period) {
+        return (1 - Math.cos(2 * Math.PI * time / period)) / 2;
+    }
+
+    /**
+     * Move the existing player marker to the player's cell, cancelling any leftover animation offset
+     */
+    private void placePlayerMarker() {
+        playerMarker.setTranslateX(0);
+        playerMarker.setTranslateY(0);
+        playerMarker.setCenterX(player.getCol() * TILE_SIZE + TILE_SIZE / 2);
+        playerMarker.setCenterY(player.getRow() * TILE_SIZE + TILE_SIZE / 2);
     }
 
     private void startGame() {
@@ -450,7 +680,7 @@ public class MazeRunnerApp extends Application {
     
     private void showInstructions() {
         // Add a temporary instruction label
-        Label instructionLabel = new Label("Use ARROW KEYS or WASD to move the player.");
+        Label instructionLabel = new Label("Use ARROW KEYS or WASD to move the player, + and - to zoom.");
         instructionLabel.setFont(Font.font("Arial", 14));
         instructionLabel.setTextFill(Color.DARKBLUE);
         instructionLabel.setBackground(new Background(new BackgroundFill(
@@ -489,7 +719,25 @@ public class MazeRunnerApp extends Application {
             gamePane.getChildren().remove(flash);
             
             // Reset player to start position
-            player.setPosition(maze.getStartRow(), maze.getStartCol());
+            if (endlessMaze != null) {
+                // Rows behind the player are gone, so regenerate the same shaft from the top
+                endlessMaze = new EndlessMaze(endlessMaze.getCols(), endlessMaze.getSeed());
+                board = endlessMaze;
+                mazeRenderer.setMaze(board);
+                player.setPosition(endlessMaze.getStartRow(), endlessMaze.getStartCol());
+                deepestRow = player.getRow();
+                difficultyLabel.setText(progressText());
+            } else if (dungeon != null) {
+                // Back down to the ground floor of the same dungeon
+                currentFloor = 0;
+                maze = dungeon.getFloor(currentFloor);
+                board = maze;
+                player.setPosition(maze.getStartRow(), maze.getStartCol());
+                difficultyLabel.setText(progressText());
+                showMaze();
+            } else {
+                player.setPosition(maze.getStartRow(), maze.getStartCol());
+            }
             
             // Reset timer and move counter
             if (gameTimer != null) {
@@ -500,9 +748,9 @@ public class MazeRunnerApp extends Application {
             movesCount = 0;
             movesLabel.setText("Moves: 0");
             
-            // Redraw maze and player
-            drawMaze();
-            drawPlayer();
+            // Clear the trail and move the player back; the maze itself hasn't changed
+            mazeRenderer.clearBreadcrumbs();
+            placePlayerMarker();
         });
         
         flashFade.play();
@@ -515,6 +763,16 @@ public class MazeRunnerApp extends Application {
                 " - Timer running: " + (gameTimer != null && gameTimer.isRunning()) + 
                 " - Player moving: " + isMoving);
                 
+            // Zooming works whether or not the game is running
+            if (e.getCode() == KeyCode.EQUALS || e.getCode() == KeyCode.PLUS || e.getCode() == KeyCode.ADD) {
+                zoomBy(ZOOM_STEP);
+                return;
+            }
+            if (e.getCode() == KeyCode.MINUS || e.getCode() == KeyCode.SUBTRACT) {
+                zoomBy(1 / ZOOM_STEP);
+                return;
+            }
+            
             // Check if timer is active
             if (gameTimer == null || !gameTimer.isRunning()) {
                 // If game not started/running, show a helpful message
@@ -528,6 +786,18 @@ public class MazeRunnerApp extends Application {
                 return;
             }
             
+            // Show the next step towards the goal
+            if (e.getCode() == KeyCode.H) {
+                showHint();
+                return;
+            }
+            
+            // Take the stairs in a dungeon
+            if (e.getCode() == KeyCode.E) {
+                takeStairs();
+                return;
+            }
+            
             int newRow = player.getRow();
             int newCol = player.getCol();
             
@@ -548,7 +818,7 @@ public class MazeRunnerApp extends Application {
             
             if (validKey) {
                 // Check if move is valid (not a wall)
-                if (maze.isValidMove(newRow, newCol)) {
+                if (board.isValidMove(newRow, newCol)) {
                     // Update move counter
                     movesCount++;
                     movesLabel.setText("Moves: " + movesCount);
@@ -563,6 +833,35 @@ public class MazeRunnerApp extends Application {
         });
     }
     
+    private void showHint() {
+        if (maze == null) {
+            showErrorLabel("No hints in endless mode");
+            return;
+        }
+        int next = maze.nextBestMove(player.getRow(), player.getCol());
+        if (next < 0) {
+            return;
+        }
+        
+        // Briefly highlight the cell to move to
+        Rectangle hint = new Rectangle(
+            (next % maze.getNumCols()) * TILE_SIZE,
+            (next / maze.getNumCols()) * TILE_SIZE,
+            TILE_SIZE,
+            TILE_SIZE
+        );
+        hint.setArcHeight(6);
+        hint.setArcWidth(6);
+        hint.setFill(Color.rgb(100, 200, 255, 0.6));
+        worldPane.getChildren().add(worldPane.getChildren().indexOf(playerMarker), hint);
+        
+        FadeTransition fadeOut = new FadeTransition(Duration.seconds(1), hint);
+        fadeOut.setFromValue(1.0);
+        fadeOut.setToValue(0.0);
+        fadeOut.setOnFinished(e -> worldPane.getChildren().remove(hint));
+        fadeOut.play();
+    }
+    
     private void showErrorLabel(String message) {
         // Create temporary error message with improved styling
         Label errorLabel = new Label(message);
@@ -599,7 +898,7 @@ public class MazeRunnerApp extends Application {
         isMoving = true;
         
         // First check if this is a valid move
-        if (!maze.isValidMove(newRow, newCol)) {
+        if (!board.isValidMove(newRow, newCol)) {
             // Wall collision animation
             playCollisionAnimation();
             return;
@@ -693,35 +992,9 @@ public class MazeRunnerApp extends Application {
     }
 
     private void leaveBreadcrumb() {
-        // Create a small circle at the player's current position as a breadcrumb trail
-        Circle breadcrumb = new Circle(
-            player.getCol() * TILE_SIZE + TILE_SIZE / 2,
-            player.getRow() * TILE_SIZE + TILE_SIZE / 2,
-            TILE_SIZE / 10,
-            Color.rgb(100, 150, 255, 0.5)
-        );
-        
-        // Add subtle glow
-        javafx.scene.effect.Glow glow = new javafx.scene.effect.Glow(0.3);
-        breadcrumb.setEffect(glow);
-        
-        // Add to game pane behind player
-        gamePane.getChildren().add(gamePane.getChildren().indexOf(playerMarker), breadcrumb);
-        
-        // Add to list of breadcrumbs
-        breadcrumbs.add(breadcrumb);
-        
-        // If we have too many breadcrumbs, remove the oldest
-        if (breadcrumbs.size() > BREADCRUMB_MAX_COUNT) {
-            Circle oldest = breadcrumbs.remove(0);
-            
-            // Fade out the oldest breadcrumb before removing
-            FadeTransition fadeOut = new FadeTransition(Duration.millis(500), oldest);
-            fadeOut.setFromValue(0.5);
-            fadeOut.setToValue(0);
-            fadeOut.setOnFinished(e -> gamePane.getChildren().remove(oldest));
-            fadeOut.play();
-        }
+        // Mark the player's current cell; the renderer keeps the last BREADCRUMB_MAX_COUNT
+        // on the maze canvas and drops the oldest
+        mazeRenderer.addBreadcrumb(player.getRow(), player.getCol());
     }
 
     private void playCollisionAnimation() {
@@ -843,6 +1116,15 @@ public class MazeRunnerApp extends Application {
      * Check if player has reached the end of the maze
      */
     private void checkWin() {
+        if (endlessMaze != null) {
+            descendEndless(); // There's no goal, only depth
+            return;
+        }
+        if (dungeon != null && dungeon.isStair(currentFloor, player.getRow(), player.getCol())) {
+            // Every floor's gold square but the top one's is the staircase up
+            showErrorLabel("Press E to take the stairs");
+            return;
+        }
         if (player.getRow() == maze.getEndRow() && player.getCol() == maze.getEndCol()) {
             // Stop the timer immediately to record the final time
             double finalTime = gameTimer.getElapsedTime();
@@ -856,6 +1138,35 @@ public class MazeRunnerApp extends Application {
         }
     }
     
+    /**
+     * Generate the endless shaft ahead of the player and record how deep they got
+     */
+    private void descendEndless() {
+        int generated = endlessMaze.getWindowEnd();
+        endlessMaze.advanceTo(player.getRow());
+        if (endlessMaze.getWindowEnd() != generated) {
+            mazeRenderer.repaintAll(); // New rows reuse the storage of discarded ones
+        }
+        if (player.getRow() > deepestRow) {
+            deepestRow = player.getRow();
+            difficultyLabel.setText(progressText());
+        }
+    }
+    
+    /**
+     * Get the level or depth shown in the top bar
+     */
+    private String progressText() {
+        if (endlessMaze != null) {
+            return "Endless - Depth " + (deepestRow - endlessMaze.getStartRow()) + " - " + currentDifficulty.name();
+        }
+        if (dungeon != null) {
+            return "Level " + currentLevel + " - Floor " + (currentFloor + 1) + "/" + dungeon.getFloorCount()
+                    + " - " + currentDifficulty.name();
+        }
+        return "Level " + currentLevel + " - " + currentDifficulty.name();
+    }
+    
     /**
      * Show dialog when player finishes the level
      * @param time the time taken to complete the level
@@ -864,7 +1175,9 @@ public class MazeRunnerApp extends Application {
         // Create the name input dialog
         TextInputDialog nameDialog = new TextInputDialog("Player");
         nameDialog.setTitle("Level Complete!");
-        nameDialog.setHeaderText("You completed level " + currentLevel + " in " + String.format("%.1f", time) + " seconds!");
+        nameDialog.setHeaderText("You completed level " + currentLevel + " in " + String.format("%.1f", time) + " seconds!\n" +
+            "Moves: " + movesCount + " (shortest possible: "
+            + (dungeon != null ? dungeon.shortestPathLength() : maze.optimalMoves()) + ")");
         nameDialog.setContentText("Enter your name to save your score:");
         
         // Use show() instead of showAndWait() and handle the result with a listener
@@ -923,12 +1236,28 @@ public class MazeRunnerApp extends Application {
      */
     private void startNextLevel() {
         currentLevel++;
-        maze = new Maze(currentDifficulty);
+        if (dungeon != null) {
+            enterDungeon();
+        } else {
+            maze = mazeForLevel(currentLevel);
+        }
+        board = maze;
         player = new Player(maze.getStartRow(), maze.getStartCol());
         movesCount = 0;
-        drawMaze();
-        drawPlayer();
-        difficultyLabel.setText("Level " + currentLevel + " - " + currentDifficulty.name());
+        if (gamePane.getPrefWidth() != Math.min(board.getNumCols() * TILE_SIZE, MAX_VIEWPORT_WIDTH)
+                || gamePane.getPrefHeight() != Math.min(board.getNumRows() * TILE_SIZE, MAX_VIEWPORT_HEIGHT)) {
+            // Curated levels needn't match the size of the previous one
+            gamePane = createGamePane();
+            rootLayout.setCenter(gamePane);
+            primaryStage.sizeToScene();
+            drawMaze();
+            drawPlayer();
+        } else {
+            // Same viewport, so keep the nodes and just point them at the new maze
+            showMaze();
+            placePlayerMarker();
+        }
+        difficultyLabel.setText(progressText());
         movesLabel.setText("Moves: 0");
         startGame();
     }
@@ -970,7 +1299,7 @@ public class MazeRunnerApp extends Application {
             particle.setCenterY(playerMarker.getCenterY());
             
             particles.add(particle);
-            gamePane.getChildren().add(particle);
+            worldPane.getChildren().add(particle);
         }
         
         // Enhanced player animation with rotation and scale
@@ -1090,7 +1419,7 @@ public class MazeRunnerApp extends Application {
         
         sequence.setOnFinished(e -> {
             // Clean up particles and flash
-            gamePane.getChildren().removeAll(particles);
+            worldPane.getChildren().removeAll(particles);
             gamePane.getChildren().remove(flash);
             
             // Reset player appearance
@@ -1113,12 +1442,27 @@ public class MazeRunnerApp extends Application {
         if (gameTimer != null) {
             gameTimer.stop();
         }
+        animationClock.stop();
         
         // Stop the embedded server if it's running
         if (embeddedServer != null && embeddedServer.isRunning()) {
             embeddedServer.stop();
         }
         
+        // Stop background maze generation
+        if (mazePool != null) {
+            System.out.println("Maze pool hit rate: " + String.format("%.0f%%", mazePool.getHitRate() * 100));
+            mazePool.shutdown();
+        }
+        
+        for (LevelPack pack : levelPacks.values()) {
+            try {
+                pack.close();
+            } catch (IOException e) {
+                System.err.println("Error closing level pack: " + e.getMessage());
+            }
+        }
+        
         System.out.println("Application stopped.");
     }
 
@@ -0,0 +1,193 @@
+package com.mazerunner;
+
+import java.util.Arrays;
+
+/**
+ * Shortest-path searches over a maze grid: breadth-first, A* with a Manhattan
+ * heuristic, and bidirectional breadth-first. Paths are returned as packed cell
+ * indices (row * cols + col) from the first cell to the last, both included.
+ * Scratch space is kept between searches; not thread-safe.
+ */
+final class MazeSolver {
+    static final int[] NO_PATH = new int[0];
+
+    private final BitGrid grid;
+    private final int cols;
+    private final int cells;
+    private final int[] offsets; // Up, right, down, left as packed index deltas
+    private final SearchContext forward = new SearchContext();
+    private final SearchContext backward = new SearchContext();
+    private long[] heap = new long[64]; // A* open set, keyed by (f << 32) | cell
+    private int heapSize;
+
+    MazeSolver(BitGrid grid) {
+        this.grid = grid;
+        this.cols = grid.getCols();
+        this.cells = grid.getRows() * grid.getCols();
+        this.offsets = new int[]{-cols, 1, cols, -1};
+    }
+
+    int[] breadthFirst(int from, int to) {
+        forward.start(cells);
+        forward.visit(from, 0);
+        while (forward.hasNext()) {
+            int cell = forward.next();
+            if (cell == to) {
+                return tracePath(forward, to);
+            }
+            int distance = forward.distance(cell) + 1;
+            for (int offset : offsets) {
+                if (!grid.isWall(cell + offset)) {
+                    forward.visit(cell + offset, distance);
+                }
+            }
+        }
+        return NO_PATH;
+    }
+
+    int[] aStar(int from, int to) {
+        // The Manhattan heuristic is consistent on a unit grid, so a cell's distance
+        // is final the first time it comes off the heap
+        forward.start(cells);
+        forward.relax(from, 0);
+        heapSize = 0;
+        push(((long) manhattan(from, to) << 32) | from);
+
+        while (heapSize > 0) {
+            long key = pop();
+            int cell = (int) key;
+            int distance = forward.distance(cell);
+            if ((int) (key >>> 32) > distance + manhattan(cell, to)) {
+                continue; // Stale entry, the cell was reached more cheaply since
+            }
+            if (cell == to) {
+                return tracePath(forward, to);
+            }
+            for (int offset : offsets) {
+                int next = cell + offset;
+                if (!grid.isWall(next) && forward.relax(next, distance + 1)) {
+                    push(((long) (distance + 1 + manhattan(next, to)) << 32) | next);
+                }
+            }
+        }
+        return NO_PATH;
+    }
+
+    int[] bidirectional(int from, int to) {
+        forward.start(cells);
+        backward.start(cells);
+        forward.visit(from, 0);
+        backward.visit(to, 0);
+        if (from == to) {
+            return new int[]{from};
+        }
+
+        // Expand whole layers, always on the side with the smaller frontier. The first
+        // layer that touches the other side holds a shortest meeting cell.
+        int meet = -1;
+        int best = Integer.MAX_VALUE;
+        while (forward.hasNext() && backward.hasNext() && meet < 0) {
+            boolean expandForward = forward.visitedCount() <= backward.visitedCount();
+            SearchContext side = expandForward ? forward : backward;
+            SearchContext other = expandForward ? backward : forward;
+
+            int layer = side.distance(side.peek());
+            while (side.hasNext() && side.distance(side.peek()) == layer) {
+                int cell = side.next();
+                for (int offset : offsets) {
+                    int next = cell + offset;
+                    if (grid.isWall(next)) {
+                        continue;
+                    }
+                    side.visit(next, layer + 1);
+                    int otherDistance = other.distance(next);
+                    if (otherDistance >= 0 && side.distance(next) + otherDistance < best) {
+                        best = side.distance(next) + otherDistance;
+                        meet = next;
+                    }
+                }
+            }
+        }
+        if (meet < 0) {
+            return NO_PATH;
+        }
+
+        // Walk back to the start on the forward side, then on to the goal on the backward side
+        int forwardLength = forward.distance(meet);
+        int[] path = Arrays.copyOf(tracePath(forward, meet), forwardLength + 1 + backward.distance(meet));
+        int cell = meet;
+        for (int k = forwardLength + 1; k < path.length; k++) {
+            cell = stepDown(backward, cell);
+            path[k] = cell;
+        }
+        return path;
+    }
+
+    /**
+     * Rebuild the path from a search's origin to a reached cell by repeatedly stepping
+     * to a neighbour one closer to the origin
+     */
+    private int[] tracePath(SearchContext search, int target) {
+        int[] path = new int[search.distance(target) + 1];
+        int cell = target;
+        path[path.length - 1] = cell;
+        for (int k = path.length - 2; k >= 0; k--) {
+            cell = stepDown(search, cell);
+            path[k] = cell;
+        }
+        return path;
+    }
+
+    private int stepDown(SearchContext search, int cell) {
+        int wanted = search.distance(cell) - 1;
+        for (int offset : offsets) {
+            int next = cell + offset;
+            if (!grid.isWall(next) && search.distance(next) == wanted) {
+                return next;
+            }
+        }
+        throw new IllegalStateException("Broken distance field at cell " + cell);
+    }
+
+    private int manhattan(int a, int b) {
+        return Math.abs(a / cols - b / cols) + Math.abs(a % cols - b % cols);
+    }
+
+    private void push(long key) {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heapSize * 2);
+        }
+        int i = heapSize++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= key) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = key;
+    }
+
+    private long pop() {
+        long top = heap[0];
+        long last = heap[--heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (last <= heap[child]) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return top;
+    }
+}
@@ -0,0 +1,18 @@
+package com.mazerunner;
+
+/**
+ * Read-only access to the cells of a board the player walks on, whether a whole Maze
+ * or one generated as the player goes. Enough to draw it and to check moves.
+ */
+interface MazeView {
+    /**
+     * Get the number of rows that exist so far; a streamed board grows as it is explored
+     */
+    int getNumRows();
+
+    int getNumCols();
+
+    Maze.CellType getCellType(int row, int col);
+
+    boolean isValidMove(int row, int col);
+}
@@ -0,0 +1,223 @@
+package com.mazerunner;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A dungeon of stacked Maze floors linked by stairs. Each floor is an ordinary maze,
+ * generated independently and in parallel. The goal of every floor but the top one
+ * is a staircase up to the next floor's start, so there is always a route from the
+ * start on floor 0 to the goal on the top floor. Extra stairs join cells that are
+ * open on two neighbouring floors, giving shortcuts between them.
+ *
+ * Cells across floors are packed as floor * rows * cols + row * cols + col.
+ * A renderer only needs the Maze of the floor the player is on.
+ */
+public class MultiFloorMaze {
+    private static final int DEFAULT_EXTRA_STAIRS = 2;
+
+    private final Maze[] floors;
+    private final int rows;
+    private final int cols;
+    private final int floorCells;
+    private final long seed;
+    private final int[] stairTo; // Packed index of the other end of the staircase at each cell, or -1
+    private final SearchContext search = new SearchContext();
+
+    public MultiFloorMaze(int floorCount, int rows, int cols, long seed) {
+        this(floorCount, rows, cols, seed, Maze.Algorithm.RECURSIVE_BACKTRACKER, DEFAULT_EXTRA_STAIRS);
+    }
+
+    /**
+     * Create a multi-floor maze
+     * @param floorCount number of floors (at least 1)
+     * @param rows number of rows of each floor, including the outer wall (at least 5)
+     * @param cols number of columns of each floor, including the outer wall (at least 5)
+     * @param seed seed for the random source; the same arguments always give the same dungeon
+     * @param algorithm the algorithm every floor is carved with
+     * @param extraStairs extra staircases to try to place between each pair of floors
+     */
+    public MultiFloorMaze(int floorCount, int rows, int cols, long seed, Maze.Algorithm algorithm, int extraStairs) {
+        if (floorCount < 1 || extraStairs < 0) {
+            throw new IllegalArgumentException("Invalid floor count " + floorCount + " or extra stairs " + extraStairs);
+        }
+        if ((long) floorCount * rows * cols > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Dungeon too large: " + floorCount + " floors of " + rows + "x" + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.floorCells = rows * cols;
+        this.seed = seed;
+        stairTo = new int[floorCount * floorCells];
+        Arrays.fill(stairTo, -1);
+
+        // Draw every floor's seed up front, so the result doesn't depend on thread timing
+        Random random = new Random(seed);
+        long[] floorSeeds = new long[floorCount];
+        for (int f = 0; f < floorCount; f++) {
+            floorSeeds[f] = random.nextLong();
+        }
+        floors = new Maze[floorCount];
+        Arrays.parallelSetAll(floors, f -> new Maze(rows, cols, floorSeeds[f], algorithm, Maze.GoalPolicy.FARTHEST));
+
+        for (int f = 0; f + 1 < floorCount; f++) {
+            Maze below = floors[f];
+            Maze above = floors[f + 1];
+            link(index(f, below.getEndRow(), below.getEndCol()), index(f + 1, above.getStartRow(), above.getStartCol()));
+
+            // Extra stairs go where both floors happen to be open
+            int placed = 0;
+            for (int attempt = 0; attempt < extraStairs * 16 && placed < extraStairs; attempt++) {
+                int r = 1 + random.nextInt(rows - 2);
+                int c = 1 + random.nextInt(cols - 2);
+                int lower = index(f, r, c);
+                int upper = index(f + 1, r, c);
+                if (below.isValidMove(r, c) && above.isValidMove(r, c)
+                        && stairTo[lower] < 0 && stairTo[upper] < 0
+                        && below.getCellType(r, c) == Maze.CellType.PATH && above.getCellType(r, c) == Maze.CellType.PATH) {
+                    link(lower, upper);
+                    placed++;
+                }
+            }
+        }
+    }
+
+    private void link(int a, int b) {
+        stairTo[a] = b;
+        stairTo[b] = a;
+    }
+
+    /**
+     * Pack a cell on a floor into one index
+     */
+    public int index(int floor, int row, int col) {
+        return floor * floorCells + row * cols + col;
+    }
+
+    public int getFloorCount() {
+        return floors.length;
+    }
+
+    /**
+     * Get one floor as an ordinary maze
+     */
+    public Maze getFloor(int floor) {
+        return floors[floor];
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Check whether a cell holds a staircase to another floor
+     */
+    public boolean isStair(int floor, int row, int col) {
+        return floor >= 0 && floor < floors.length && row >= 0 && row < rows && col >= 0 && col < cols
+                && stairTo[index(floor, row, col)] >= 0;
+    }
+
+    /**
+     * Get where a staircase leads
+     * @return the packed index of the other end, or -1 if the cell isn't a staircase
+     */
+    public int getStairDestination(int floor, int row, int col) {
+        if (!isStair(floor, row, col)) {
+            return -1;
+        }
+        return stairTo[index(floor, row, col)];
+    }
+
+    private int startIndex() {
+        return index(0, floors[0].getStartRow(), floors[0].getStartCol());
+    }
+
+    private int goalIndex() {
+        Maze top = floors[floors.length - 1];
+        return index(floors.length - 1, top.getEndRow(), top.getEndCol());
+    }
+
+    /**
+     * Check that the goal on the top floor can be reached from the start on floor 0
+     */
+    public boolean isPathValid() {
+        return findPath().length > 0;
+    }
+
+    /**
+     * Get the number of moves on a shortest route through all floors; taking a staircase is one move
+     * @return the number of moves, or -1 if the goal can't be reached
+     */
+    public int shortestPathLength() {
+        return findPath().length - 1;
+    }
+
+    /**
+     * Find a shortest route from the start on floor 0 to the goal on the top floor
+     * @return packed indices from start to goal, both included, or an empty array if there is none
+     */
+    public synchronized int[] findPath() {
+        int from = startIndex();
+        int to = goalIndex();
+        int[] offsets = {-cols, 1, cols, -1};
+
+        // Breadth-first over every floor at once; the outer walls keep moves on their floor
+        search.start(floors.length * floorCells);
+        search.visit(from, 0);
+        while (search.hasNext()) {
+            int cell = search.next();
+            if (cell == to) {
+                break;
+            }
+            int distance = search.distance(cell) + 1;
+            BitGrid grid = floors[cell / floorCells].grid();
+            int local = cell % floorCells;
+            for (int offset : offsets) {
+                if (!grid.isWall(local + offset)) {
+                    search.visit(cell + offset, distance);
+                }
+            }
+            int stair = stairTo[cell];
+            if (stair >= 0 && !floors[stair / floorCells].grid().isWall(stair % floorCells)) {
+                search.visit(stair, distance); // Unless a change to that floor closed it
+            }
+        }
+        if (!search.isVisited(to)) {
+            return MazeSolver.NO_PATH;
+        }
+
+        // Walk back from the goal, one step closer to the start each time
+        int[] path = new int[search.distance(to) + 1];
+        int cell = to;
+        path[path.length - 1] = cell;
+        for (int k = path.length - 2; k >= 0; k--) {
+            cell = stepBack(cell, offsets);
+            path[k] = cell;
+        }
+        return path;
+    }
+
+    private int stepBack(int cell, int[] offsets) {
+        int wanted = search.distance(cell) - 1;
+        BitGrid grid = floors[cell / floorCells].grid();
+        int local = cell % floorCells;
+        for (int offset : offsets) {
+            if (!grid.isWall(local + offset) && search.distance(cell + offset) == wanted) {
+                return cell + offset;
+            }
+        }
+        int stair = stairTo[cell];
+        if (stair >= 0 && search.distance(stair) == wanted) {
+            return stair;
+        }
+        throw new IllegalStateException("Broken distance field at cell " + cell);
+    }
+}
@@ -0,0 +1,206 @@
+package com.mazerunner;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Splits the rooms into square tiles, carves each tile as an independent depth-first
+ * maze in parallel on a ForkJoinPool, then joins the tiles into one perfect maze by
+ * opening one random wall on each border picked by union-find over the tiles.
+ * Meant for very large boards; each tile's seed is drawn from the maze's random
+ * source up front, so the result doesn't depend on thread scheduling.
+ * Only the carving is parallel. Maze's later passes (loops, branches, goal placement,
+ * dead-end removal) take turns on the same seeded random source and stay serial,
+ * so on a 4001x4001 board carving is only about a quarter of the construction time.
+ */
+final class ParallelTileGenerator implements MazeGenerator {
+    private static final int TILE_ROOMS = 64; // Tile edge length in rooms
+    private static final int TILES_PER_TASK = 4; // Split tasks down to this many tiles
+
+    private final ForkJoinPool pool;
+
+    ParallelTileGenerator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    ParallelTileGenerator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public void carve(BitGrid grid, CellList pathCells, Random random) {
+        int roomRows = MazeGenerator.roomRows(grid);
+        int roomCols = MazeGenerator.roomCols(grid);
+        int tileRows = (roomRows + TILE_ROOMS - 1) / TILE_ROOMS;
+        int tileCols = (roomCols + TILE_ROOMS - 1) / TILE_ROOMS;
+        int tiles = tileRows * tileCols;
+
+        long[] seeds = new long[tiles];
+        for (int t = 0; t < tiles; t++) {
+            seeds[t] = random.nextLong();
+        }
+
+        // Carve every tile in parallel; each records its own cells
+        CellList[] tileCells = new CellList[tiles];
+        pool.invoke(new CarveTiles(grid, roomRows, roomCols, tileCols, seeds, tileCells, 0, tiles));
+        for (CellList cells : tileCells) {
+            for (int i = 0; i < cells.size(); i++) {
+                pathCells.add(cells.get(i));
+            }
+        }
+
+        // Join the tiles: each tile border is encoded as tile * 2 (east border)
+        // or tile * 2 + 1 (south border), taken in random order
+        int[] borders = new int[tileRows * (tileCols - 1) + (tileRows - 1) * tileCols];
+        int count = 0;
+        for (int t = 0; t < tiles; t++) {
+            if (t % tileCols < tileCols - 1) {
+                borders[count++] = t * 2;
+            }
+            if (t / tileCols < tileRows - 1) {
+                borders[count++] = t * 2 + 1;
+            }
+        }
+        for (int k = count - 1; k > 0; k--) {
+            int swap = random.nextInt(k + 1);
+            int tmp = borders[k];
+            borders[k] = borders[swap];
+            borders[swap] = tmp;
+        }
+
+        UnionFind sets = new UnionFind(tiles);
+        for (int k = 0; k < count; k++) {
+            int tile = borders[k] >>> 1;
+            boolean south = (borders[k] & 1) != 0;
+            if (!sets.union(tile, south ? tile + tileCols : tile + 1)) {
+                continue;
+            }
+            int firstRoomRow = (tile / tileCols) * TILE_ROOMS;
+            int firstRoomCol = (tile % tileCols) * TILE_ROOMS;
+            if (south) {
+                // Open the wall under a random room on the tile's bottom edge
+                int i = firstRoomRow + TILE_ROOMS - 1;
+                int j = firstRoomCol + random.nextInt(Math.min(TILE_ROOMS, roomCols - firstRoomCol));
+                MazeGenerator.carveCell(grid, pathCells, 2 * i + 2, 2 * j + 1);
+            } else {
+                // Open the wall right of a random room on the tile's right edge
+                int i = firstRoomRow + random.nextInt(Math.min(TILE_ROOMS, roomRows - firstRoomRow));
+                int j = firstRoomCol + TILE_ROOMS - 1;
+                MazeGenerator.carveCell(grid, pathCells, 2 * i + 1, 2 * j + 2);
+            }
+        }
+    }
+
+    /**
+     * Carves a range of tiles, splitting itself until the range is small
+     */
+    private static final class CarveTiles extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final BitGrid grid;
+        private final int roomRows;
+        private final int roomCols;
+        private final int tileCols;
+        private final long[] seeds;
+        private final CellList[] tileCells;
+        private final int from;
+        private final int to;
+
+        CarveTiles(BitGrid grid, int roomRows, int roomCols, int tileCols, long[] seeds,
+                   CellList[] tileCells, int from, int to) {
+            this.grid = grid;
+            this.roomRows = roomRows;
+            this.roomCols = roomCols;
+            this.tileCols = tileCols;
+            this.seeds = seeds;
+            this.tileCells = tileCells;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > TILES_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new CarveTiles(grid, roomRows, roomCols, tileCols, seeds, tileCells, from, mid),
+                          new CarveTiles(grid, roomRows, roomCols, tileCols, seeds, tileCells, mid, to));
+                return;
+            }
+            for (int t = from; t < to; t++) {
+                int firstRow = (t / tileCols) * TILE_ROOMS;
+                int firstCol = (t % tileCols) * TILE_ROOMS;
+                tileCells[t] = carveTile(grid, new Random(seeds[t]), firstRow, firstCol,
+                        Math.min(TILE_ROOMS, roomRows - firstRow), Math.min(TILE_ROOMS, roomCols - firstCol));
+            }
+        }
+    }
+
+    /**
+     * Randomized depth-first search confined to one tile. Neighbouring tiles may share
+     * words of the grid, so walls are cleared atomically, and visited rooms are tracked
+     * locally instead of being read back from the grid.
+     */
+    private static CellList carveTile(BitGrid grid, Random random, int firstRow, int firstCol, int height, int width) {
+        int[] di = {-1, 0, 1, 0};
+        int[] dj = {0, 1, 0, -1};
+        CellList cells = new CellList();
+        boolean[] visited = new boolean[height * width];
+        int[] stack = new int[64];
+        int top = 0;
+
+        int startRoom = random.nextInt(height * width);
+        visited[startRoom] = true;
+        carveRoom(grid, cells, firstRow + startRoom / width, firstCol + startRoom % width, 0, 0);
+        stack[top++] = startRoom;
+
+        int[] options = new int[4];
+        while (top > 0) {
+            int room = stack[top - 1];
+            int i = room / width;
+            int j = room % width;
+
+            // Collect unvisited neighbours inside the tile
+            int count = 0;
+            for (int dir = 0; dir < 4; dir++) {
+                int ni = i + di[dir];
+                int nj = j + dj[dir];
+                if (ni >= 0 && ni < height && nj >= 0 && nj < width && !visited[ni * width + nj]) {
+                    options[count++] = dir;
+                }
+            }
+            if (count == 0) {
+                top--; // Dead end, backtrack
+                continue;
+            }
+
+            int dir = options[random.nextInt(count)];
+            int next = (i + di[dir]) * width + (j + dj[dir]);
+            visited[next] = true;
+            carveRoom(grid, cells, firstRow + i + di[dir], firstCol + j + dj[dir], di[dir], dj[dir]);
+            if (top == stack.length) {
+                stack = Arrays.copyOf(stack, top * 2);
+            }
+            stack[top++] = next;
+        }
+        return cells;
+    }
+
+    /**
+     * Open a room and the wall behind it, given the step (stepI, stepJ) that reached it.
+     * A step of (0, 0) opens just the room.
+     */
+    private static void carveRoom(BitGrid grid, CellList cells, int i, int j, int stepI, int stepJ) {
+        int r = 2 * i + 1;
+        int c = 2 * j + 1;
+        if (stepI != 0 || stepJ != 0) {
+            int wall = grid.index(r - stepI, c - stepJ);
+            grid.clearWallConcurrently(wall);
+            cells.add(wall);
+        }
+        int room = grid.index(r, c);
+        grid.clearWallConcurrently(room);
+        cells.add(room);
+    }
+}
@@ -0,0 +1,55 @@
+package com.mazerunner;
+
+import java.util.Random;
+
+/**
+ * Randomized Prim's algorithm: grows the maze from the top-left room by repeatedly
+ * opening a random wall on its frontier. Produces many short dead ends.
+ */
+final class PrimGenerator implements MazeGenerator {
+    private static final int[] DR = {-1, 0, 1, 0};
+    private static final int[] DC = {0, 1, 0, -1};
+
+    @Override
+    public void carve(BitGrid grid, CellList pathCells, Random random) {
+        int roomRows = MazeGenerator.roomRows(grid);
+        int roomCols = MazeGenerator.roomCols(grid);
+
+        // Frontier entries are room * 4 + direction, pointing from a room in the maze
+        // towards a neighbour that may not be in it yet
+        CellList frontier = new CellList();
+        MazeGenerator.carveCell(grid, pathCells, 1, 1);
+        addFrontier(frontier, 0, roomRows, roomCols);
+
+        while (frontier.size() > 0) {
+            int pick = random.nextInt(frontier.size());
+            int entry = frontier.get(pick);
+            frontier.set(pick, frontier.get(frontier.size() - 1));
+            frontier.removeLast();
+
+            int room = entry >>> 2;
+            int dir = entry & 3;
+            int r = 2 * (room / roomCols) + 1;
+            int c = 2 * (room % roomCols) + 1;
+            int newR = r + 2 * DR[dir];
+            int newC = c + 2 * DC[dir];
+            if (grid.isWall(grid.index(newR, newC))) {
+                MazeGenerator.carveCell(grid, pathCells, r + DR[dir], c + DC[dir]);
+                MazeGenerator.carveCell(grid, pathCells, newR, newC);
+                addFrontier(frontier, room + DR[dir] * roomCols + DC[dir], roomRows, roomCols);
+            }
+        }
+    }
+
+    private static void addFrontier(CellList frontier, int room, int roomRows, int roomCols) {
+        int i = room / roomCols;
+        int j = room % roomCols;
+        for (int dir = 0; dir < 4; dir++) {
+            int ni = i + DR[dir];
+            int nj = j + DC[dir];
+            if (ni >= 0 && ni < roomRows && nj >= 0 && nj < roomCols) {
+                frontier.add(room * 4 + dir);
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.mazerunner;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Randomized depth-first search from the top-left room. Produces long, winding
+ * corridors with relatively few dead ends. Memory grows with the longest corridor.
+ */
+final class RecursiveBacktrackerGenerator implements MazeGenerator {
+
+    @Override
+    public void carve(BitGrid grid, CellList pathCells, Random random) {
+        // Depth-first carving with an explicit stack instead of one call frame per cell,
+        // so large grids don't overflow the thread stack. Each stack entry is a pair of
+        // ints: the packed cell index and its state (shuffled direction order in the low
+        // 8 bits, 2 bits per direction, and the next direction to try above that).
+        // Directions are visited in exactly the order the recursive version did.
+        int rows = grid.getRows();
+        int cols = grid.getCols();
+        int[] dr = {-2, 0, 2, 0};
+        int[] dc = {0, 2, 0, -2};
+        int[] order = new int[4];
+
+        int[] stack = new int[64];
+        int top = 0;
+
+        MazeGenerator.carveCell(grid, pathCells, 1, 1);
+        stack[top++] = grid.index(1, 1);
+        stack[top++] = shuffleDirections(order, random);
+
+        while (top > 0) {
+            int cell = stack[top - 2];
+            int state = stack[top - 1];
+            int next = state >>> 8;
+
+            if (next == 4) {
+                // All directions tried, backtrack
+                top -= 2;
+                continue;
+            }
+            stack[top - 1] = state + (1 << 8);
+
+            int dir = (state >>> (next * 2)) & 3;
+            int r = cell / cols;
+            int c = cell % cols;
+            int newR = r + dr[dir];
+            int newC = c + dc[dir];
+
+            // Check if the new cell is within bounds and not visited
+            if (newR > 0 && newR < rows - 1 && newC > 0 && newC < cols - 1 && grid.isWall(grid.index(newR, newC))) {
+                // Carve a path between current cell and the new cell
+                MazeGenerator.carveCell(grid, pathCells, r + dr[dir] / 2, c + dc[dir] / 2);
+
+                // Continue from the new cell
+                MazeGenerator.carveCell(grid, pathCells, newR, newC);
+                if (top == stack.length) {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                }
+                stack[top++] = grid.index(newR, newC);
+                stack[top++] = shuffleDirections(order, random);
+            }
+        }
+    }
+
+    /**
+     * Shuffle the four directions and pack the order into 8 bits (2 bits per direction).
+     * Consumes the random source exactly like Collections.shuffle on a 4-element list.
+     */
+    private static int shuffleDirections(int[] order, Random random) {
+        for (int i = 0; i < 4; i++) {
+            order[i] = i;
+        }
+        for (int i = 4; i > 1; i--) {
+            int j = random.nextInt(i);
+            int tmp = order[i - 1];
+            order[i - 1] = order[j];
+            order[j] = tmp;
+        }
+        return order[0] | (order[1] << 2) | (order[2] << 4) | (order[3] << 6);
+    }
+}
@@ -0,0 +1,106 @@
+package com.mazerunner;
+
+import java.util.Arrays;
+
+/**
+ * Reusable scratch space for breadth-first searches over packed cell indices.
+ * Cells are marked visited by stamping them with the current search number, so
+ * starting a new search is O(1) instead of clearing an array. Once the arrays
+ * have grown to the grid size, searches allocate nothing.
+ * Not thread-safe; each search must finish before the next one starts.
+ */
+final class SearchContext {
+    private int[] queue = new int[0];
+    private int[] stamps = new int[0];
+    private int[] distances = new int[0];
+    private int stamp = 0;
+    private int head;
+    private int tail;
+
+    /**
+     * Start a new search over a grid of the given number of cells
+     */
+    void start(int cells) {
+        if (stamps.length < cells) {
+            queue = new int[cells];
+            stamps = new int[cells];
+            distances = new int[cells];
+            stamp = 0;
+        }
+        if (++stamp == 0) {
+            // Wrapped around after 2^32 searches; old stamps could collide
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+        head = 0;
+        tail = 0;
+    }
+
+    /**
+     * Mark a cell visited at a distance and queue it, unless it was already visited
+     * @return true if the cell was newly visited
+     */
+    boolean visit(int cell, int distance) {
+        if (stamps[cell] == stamp) {
+            return false;
+        }
+        stamps[cell] = stamp;
+        distances[cell] = distance;
+        queue[tail++] = cell;
+        return true;
+    }
+
+    /**
+     * Record a distance for a cell without queueing it, if the cell is new or the
+     * distance is shorter than the one recorded
+     * @return true if the distance was recorded
+     */
+    boolean relax(int cell, int distance) {
+        if (stamps[cell] == stamp && distances[cell] <= distance) {
+            return false;
+        }
+        stamps[cell] = stamp;
+        distances[cell] = distance;
+        return true;
+    }
+
+    boolean isVisited(int cell) {
+        return stamps[cell] == stamp;
+    }
+
+    /**
+     * Get the distance a visited cell was reached at, or -1 if it wasn't reached
+     */
+    int distance(int cell) {
+        return stamps[cell] == stamp ? distances[cell] : -1;
+    }
+
+    boolean hasNext() {
+        return head < tail;
+    }
+
+    /**
+     * Get the next queued cell without removing it
+     */
+    int peek() {
+        return queue[head];
+    }
+
+    int next() {
+        return queue[head++];
+    }
+
+    /**
+     * Get the number of cells visited so far
+     */
+    int visitedCount() {
+        return tail;
+    }
+
+    /**
+     * Get the i-th visited cell; a breadth-first search visits cells in order of distance
+     */
+    int visitedCell(int i) {
+        return queue[i];
+    }
+}
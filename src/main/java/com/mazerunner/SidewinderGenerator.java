@@ -0,0 +1,39 @@
+package com.mazerunner;
+
+import java.util.Random;
+
+/**
+ * Sidewinder algorithm: each row is split into random horizontal runs, and every run
+ * opens north from one random room. Runs row by row with O(1) state; only the top
+ * row is a single straight corridor.
+ */
+final class SidewinderGenerator implements MazeGenerator {
+    private static final double CLOSE_RUN_CHANCE = 0.5;
+
+    @Override
+    public void carve(BitGrid grid, CellList pathCells, Random random) {
+        int roomRows = MazeGenerator.roomRows(grid);
+        int roomCols = MazeGenerator.roomCols(grid);
+
+        for (int i = 0; i < roomRows; i++) {
+            int r = 2 * i + 1;
+            int runStart = 0;
+
+            for (int j = 0; j < roomCols; j++) {
+                int c = 2 * j + 1;
+                MazeGenerator.carveCell(grid, pathCells, r, c);
+
+                boolean lastInRow = j == roomCols - 1;
+                boolean closeRun = i > 0 && (lastInRow || random.nextDouble() < CLOSE_RUN_CHANCE);
+                if (closeRun) {
+                    // Open north from a random room of the run, then start a new run
+                    int chosen = runStart + random.nextInt(j - runStart + 1);
+                    MazeGenerator.carveCell(grid, pathCells, r - 1, 2 * chosen + 1);
+                    runStart = j + 1;
+                } else if (!lastInRow) {
+                    MazeGenerator.carveCell(grid, pathCells, r, c + 1);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.mazerunner;
+
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.effect.DropShadow;
+import javafx.scene.effect.Glow;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+/**
+ * Every cell type pre-rendered once, shadow and glow included, side by side in one image
+ * with the breadcrumb marker after them.
+ * Drawing a cell is then a plain image copy instead of filling, stroking and applying
+ * effects. An atlas is built for one tile size at one scale; build another to change either.
+ * Must be created on the JavaFX application thread.
+ */
+final class TileAtlas {
+    private static final double PADDING = 3; // Room around each tile for the wall shadow, in world pixels
+    private static final int BREADCRUMB_SLOT = Maze.CellType.values().length; // After the cell types
+
+    private final double tileSize;
+    private final double scale;
+    private final double slotSize; // Pixels per cell type in the image, padding included
+    private final Image image;
+
+    /**
+     * Render the atlas
+     * @param tileSize cell size in world units
+     * @param scale image pixels per world unit
+     */
+    TileAtlas(double tileSize, double scale) {
+        this.tileSize = tileSize;
+        this.scale = scale;
+        this.slotSize = Math.ceil((tileSize + 2 * PADDING) * scale);
+
+        // Each tile gets its own canvas so an effect applies to the whole tile, as it did on a node
+        Maze.CellType[] types = Maze.CellType.values();
+        int slot = (int) slotSize;
+        WritableImage atlas = new WritableImage(slot * (BREADCRUMB_SLOT + 1), slot);
+        SnapshotParameters params = new SnapshotParameters();
+        params.setFill(Color.TRANSPARENT);
+        for (Maze.CellType type : types) {
+            Canvas canvas = new Canvas(slot, slot);
+            drawTile(canvas.getGraphicsContext2D(), type, PADDING * scale);
+            WritableImage tile = canvas.snapshot(params, null);
+            atlas.getPixelWriter().setPixels(type.ordinal() * slot, 0, slot, slot, tile.getPixelReader(), 0, 0);
+        }
+        Canvas canvas = new Canvas(slot, slot);
+        drawBreadcrumbTile(canvas.getGraphicsContext2D(), PADDING * scale);
+        WritableImage tile = canvas.snapshot(params, null);
+        atlas.getPixelWriter().setPixels(BREADCRUMB_SLOT * slot, 0, slot, slot, tile.getPixelReader(), 0, 0);
+        image = atlas;
+    }
+
+    double getTileSize() {
+        return tileSize;
+    }
+
+    double getScale() {
+        return scale;
+    }
+
+    /**
+     * Copy one cell from the atlas
+     * @param x world x of the cell's left edge
+     * @param y world y of the cell's top edge
+     */
+    void draw(GraphicsContext gc, Maze.CellType type, double x, double y) {
+        drawSlot(gc, type.ordinal(), x, y);
+    }
+
+    /**
+     * Copy the breadcrumb marker over a cell
+     * @param x world x of the cell's left edge
+     * @param y world y of the cell's top edge
+     */
+    void drawBreadcrumb(GraphicsContext gc, double x, double y) {
+        drawSlot(gc, BREADCRUMB_SLOT, x, y);
+    }
+
+    private void drawSlot(GraphicsContext gc, int slot, double x, double y) {
+        double size = slotSize / scale;
+        gc.drawImage(image, slot * slotSize, 0, slotSize, slotSize,
+                x - PADDING, y - PADDING, size, size);
+    }
+
+    // Pixel coordinates throughout, so strokes and effects scale with the tile
+    private void drawTile(GraphicsContext gc, Maze.CellType type, double offset) {
+        switch (type) {
+            case WALL:
+                fillTile(gc, offset, MazeRenderer.WALL_FILL, MazeRenderer.WALL_STROKE, 1.5);
+                gc.applyEffect(new DropShadow(2 * scale, scale, scale, MazeRenderer.WALL_SHADOW));
+                break;
+            case PATH:
+                fillTile(gc, offset, MazeRenderer.PATH_FILL, MazeRenderer.PATH_STROKE, 0.5);
+                break;
+            case START:
+                fillTile(gc, offset, MazeRenderer.START_FILL, MazeRenderer.START_STROKE, 1.5);
+                break;
+            case END:
+                fillTile(gc, offset, MazeRenderer.END_FILL, MazeRenderer.END_STROKE, 2);
+                gc.applyEffect(new Glow(0.5));
+                break;
+        }
+    }
+
+    private void drawBreadcrumbTile(GraphicsContext gc, double offset) {
+        double center = offset + tileSize * scale / 2;
+        double radius = tileSize * scale / 10;
+        gc.setFill(MazeRenderer.BREADCRUMB_FILL);
+        gc.fillOval(center - radius, center - radius, 2 * radius, 2 * radius);
+        gc.applyEffect(new Glow(0.3));
+    }
+
+    private void fillTile(GraphicsContext gc, double offset, Color fill, Color stroke, double strokeWidth) {
+        double size = tileSize * scale;
+        double arc = MazeRenderer.ARC * scale;
+        gc.setFill(fill);
+        gc.fillRoundRect(offset, offset, size, size, arc, arc);
+        gc.setStroke(stroke);
+        gc.setLineWidth(strokeWidth * scale);
+        gc.strokeRoundRect(offset, offset, size, size, arc, arc);
+    }
+}
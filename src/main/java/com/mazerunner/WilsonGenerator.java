@@ -0,0 +1,62 @@
+package com.mazerunner;
+
+import java.util.Random;
+
+/**
+ * Wilson's algorithm: loop-erased random walks from each room not yet in the maze
+ * until they hit it. Produces a uniform spanning tree, i.e. an unbiased maze.
+ */
+final class WilsonGenerator implements MazeGenerator {
+    private static final int[] DR = {-1, 0, 1, 0};
+    private static final int[] DC = {0, 1, 0, -1};
+
+    @Override
+    public void carve(BitGrid grid, CellList pathCells, Random random) {
+        int roomRows = MazeGenerator.roomRows(grid);
+        int roomCols = MazeGenerator.roomCols(grid);
+
+        // Last direction taken out of each room during the current walk. Overwriting it
+        // when the walk revisits a room is what erases the loop.
+        byte[] exit = new byte[roomRows * roomCols];
+
+        MazeGenerator.carveCell(grid, pathCells, 1, 1);
+
+        for (int start = 1; start < roomRows * roomCols; start++) {
+            if (!isWall(grid, start, roomCols)) {
+                continue; // Already in the maze
+            }
+
+            // Random walk until the maze is reached
+            int room = start;
+            while (isWall(grid, room, roomCols)) {
+                int i = room / roomCols;
+                int j = room % roomCols;
+                int dir;
+                int ni;
+                int nj;
+                do {
+                    dir = random.nextInt(4);
+                    ni = i + DR[dir];
+                    nj = j + DC[dir];
+                } while (ni < 0 || ni >= roomRows || nj < 0 || nj >= roomCols);
+                exit[room] = (byte) dir;
+                room = ni * roomCols + nj;
+            }
+
+            // Carve the loop-erased path by following the recorded exits
+            room = start;
+            while (isWall(grid, room, roomCols)) {
+                int dir = exit[room];
+                int r = 2 * (room / roomCols) + 1;
+                int c = 2 * (room % roomCols) + 1;
+                MazeGenerator.carveCell(grid, pathCells, r, c);
+                MazeGenerator.carveCell(grid, pathCells, r + DR[dir], c + DC[dir]);
+                room += DR[dir] * roomCols + DC[dir];
+            }
+        }
+    }
+
+    private static boolean isWall(BitGrid grid, int room, int roomCols) {
+        return grid.isWall(grid.index(2 * (room / roomCols) + 1, 2 * (room % roomCols) + 1));
+    }
+}